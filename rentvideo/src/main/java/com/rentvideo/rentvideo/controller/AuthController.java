@@ -2,14 +2,17 @@ package com.rentvideo.rentvideo.controller;
 
 import com.rentvideo.rentvideo.dto.JwtResponse;
 import com.rentvideo.rentvideo.dto.LoginRequest;
+import com.rentvideo.rentvideo.dto.RefreshTokenRequest;
 import com.rentvideo.rentvideo.dto.RegisterRequest;
 import com.rentvideo.rentvideo.dto.UserResponse;
 import com.rentvideo.rentvideo.service.AuthService;
 import jakarta.validation.Valid; // Add this dependency if you haven't: starter-validation
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -35,4 +38,19 @@ public class AuthController {
         JwtResponse jwtResponse = authService.authenticateUser(loginRequest);
         return ResponseEntity.ok(jwtResponse);
     }
+
+    // Trades a refresh token for a new access token and refresh token, without the password
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        return ResponseEntity.ok(authService.refreshToken(refreshTokenRequest.getRefreshToken()));
+    }
+
+    // Revokes the bearer token of this request, and the refresh token's session if one is sent
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
+        String refreshToken = refreshTokenRequest != null ? refreshTokenRequest.getRefreshToken() : null;
+        authService.logout(authorization.substring(7), refreshToken); // The filter only authenticates "Bearer " headers
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
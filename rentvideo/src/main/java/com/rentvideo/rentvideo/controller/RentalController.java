@@ -3,77 +3,131 @@ package com.rentvideo.rentvideo.controller;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import jakarta.validation.Valid;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity; // Ensure this is imported
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.rentvideo.rentvideo.dto.BatchRentalRequest;
+import com.rentvideo.rentvideo.dto.BatchRentalResponse;
+import com.rentvideo.rentvideo.dto.PageResponse;
 import com.rentvideo.rentvideo.dto.RentalDTO;
+import com.rentvideo.rentvideo.dto.UserRentalSummaryDTO;
+import com.rentvideo.rentvideo.exception.MissingUserIdException;
+import com.rentvideo.rentvideo.exception.UnsupportedFormatException;
 import com.rentvideo.rentvideo.exception.VideoRentalException;
 import com.rentvideo.rentvideo.model.Rental;
+import com.rentvideo.rentvideo.security.AuthenticatedUser;
+import com.rentvideo.rentvideo.service.RentalExportService;
 import com.rentvideo.rentvideo.service.RentalService;
-import com.rentvideo.rentvideo.service.UserService;
+import com.rentvideo.rentvideo.service.UserRentalSummaryService;
 
 @RestController
 @RequestMapping("/api/rentals")
 public class RentalController {
 
     private final RentalService rentalService;
-    private final UserService userService; // This remains UserService
+    private final RentalExportService rentalExportService;
+    private final UserRentalSummaryService userRentalSummaryService;
 
-    public RentalController(RentalService rentalService, UserService userService) {
+    public RentalController(RentalService rentalService, RentalExportService rentalExportService,
+                            UserRentalSummaryService userRentalSummaryService) {
         this.rentalService = rentalService;
-        this.userService = userService;
+        this.rentalExportService = rentalExportService;
+        this.userRentalSummaryService = userRentalSummaryService;
     }
 
     // Admin only - view all rentals
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<RentalDTO>> getAllRentals() {
-        List<Rental> rentals = rentalService.getAllRentals();
-        List<RentalDTO> rentalDTOS = rentals.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(rentalDTOS);
+    public ResponseEntity<PageResponse<RentalDTO>> getAllRentals(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        int pageSize = PageResponse.clampLimit(limit);
+        List<RentalDTO> rentalDTOS = rentalService.getRentalsAfter(after, pageSize + 1);
+        return ResponseEntity.ok(PageResponse.fromSlice(rentalDTOS, pageSize, RentalDTO::getId));
+    }
+
+    // Admin only - full rental history for accounting, streamed so memory stays flat
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportRentals(@RequestParam(defaultValue = "ndjson") String format) {
+        RentalExportService.Format exportFormat = exportFormat(format);
+        MediaType mediaType = exportFormat == RentalExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = outputStream -> rentalExportService.exportRentals(outputStream, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"rentals." + exportFormat.name().toLowerCase() + "\"")
+                .body(body);
     }
 
-    // Admin or self - view rentals for a specific user
+    // Admin or self - view rentals for a specific user (self is decided by the id in the token, without a lookup)
     @GetMapping("/user/{userId}")
-    @PreAuthorize("hasRole('ADMIN') or @userService.getUserById(#userId).username == authentication.principal.username")
+    @PreAuthorize("hasRole('ADMIN') or #userId == authentication.principal.id")
     public ResponseEntity<List<RentalDTO>> getRentalsByUser(@PathVariable Long userId) {
-        List<Rental> rentals = rentalService.getRentalsByUser(userId);
-        List<RentalDTO> rentalDTOS = rentals.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(rentalDTOS);
+        return ResponseEntity.ok(rentalService.getRentalsByUser(userId));
+    }
+
+    // Admin or self - profile totals and current rentals, independent of how long the rental history is
+    @GetMapping("/user/{userId}/summary")
+    @PreAuthorize("hasRole('ADMIN') or #userId == authentication.principal.id")
+    public ResponseEntity<UserRentalSummaryDTO> getRentalSummary(@PathVariable Long userId) {
+        return ResponseEntity.ok(userRentalSummaryService.getSummary(userId));
     }
 
     // Accessible by specific user - rent a video
     @PostMapping("/rent/{videoId}")
     @PreAuthorize("hasRole('USER')") // Only regular users can rent
-    public ResponseEntity<?> rentVideo(@PathVariable Long videoId, Authentication authentication) {
+    public ResponseEntity<?> rentVideo(@PathVariable Long videoId, @AuthenticationPrincipal AuthenticatedUser principal) {
         try {
-            // Get the current authenticated user's ID using the new method in UserService
-            Long currentUserId = userService.getUserByUsername(authentication.getName()).getId(); // THIS LINE IS FIXED
-            Rental newRental = rentalService.rentVideo(currentUserId, videoId);
+            // The user id comes with the principal; the service loads the user row once
+            Rental newRental = rentalService.rentVideo(userId(principal), videoId);
             return new ResponseEntity<>(convertToDto(newRental), HttpStatus.CREATED);
         } catch (VideoRentalException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
-    // Accessible by specific user - return a video by rental ID
+    // Accessible by specific user - check out several videos at once (kiosk / store checkout)
+    @PostMapping("/batch/rent")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BatchRentalResponse> rentVideos(@Valid @RequestBody BatchRentalRequest request,
+                                                          @AuthenticationPrincipal AuthenticatedUser principal) {
+        BatchRentalResponse response = rentalService.rentVideos(userId(principal), request.getVideoIds(), request.isAtomic());
+        return new ResponseEntity<>(response, response.getRentals().isEmpty() ? HttpStatus.BAD_REQUEST : HttpStatus.CREATED);
+    }
+
+    // Accessible by specific user - return several videos at once
+    @PutMapping("/batch/return")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<BatchRentalResponse> returnVideos(@Valid @RequestBody BatchRentalRequest request,
+                                                            @AuthenticationPrincipal AuthenticatedUser principal) {
+        BatchRentalResponse response = rentalService.returnVideos(userId(principal), request.getVideoIds(), request.isAtomic());
+        return new ResponseEntity<>(response, response.getRentals().isEmpty() ? HttpStatus.BAD_REQUEST : HttpStatus.OK);
+    }
+
+    // Accessible by specific user - return a video by rental ID; the service checks that the rental is theirs
     @PutMapping("/return/{rentalId}")
-    @PreAuthorize("hasRole('USER') and @rentalService.getRentalById(#rentalId).user.username == authentication.principal.username")
-    public ResponseEntity<?> returnVideo(@PathVariable Long rentalId) {
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> returnVideo(@PathVariable Long rentalId, @AuthenticationPrincipal AuthenticatedUser principal) {
         try {
-            Rental returnedRental = rentalService.returnVideo(rentalId);
+            Rental returnedRental = rentalService.returnVideo(rentalId, userId(principal));
             return ResponseEntity.ok(convertToDto(returnedRental));
         } catch (VideoRentalException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -82,7 +136,7 @@ public class RentalController {
 
     // Accessible by specific user - return a video by user ID and video ID
     @PutMapping("/return/user/{userId}/video/{videoId}")
-    @PreAuthorize("hasRole('USER') and @userService.getUserById(#userId).username == authentication.principal.username")
+    @PreAuthorize("hasRole('USER') and #userId == authentication.principal.id")
     public ResponseEntity<?> returnVideoByUserIdAndVideoId(
             @PathVariable Long userId,
             @PathVariable Long videoId) {
@@ -94,6 +148,23 @@ public class RentalController {
         }
     }
 
+    // Tokens issued before the uid claim have no id; refuse them (401) rather than looking up a null user
+    private static Long userId(AuthenticatedUser principal) {
+        if (principal == null || principal.getId() == null) {
+            throw new MissingUserIdException("Access token has no user id, please sign in again");
+        }
+        return principal.getId();
+    }
+
+    // Case-insensitive; anything else is the client's mistake (400), never an internal error
+    private static RentalExportService.Format exportFormat(String format) {
+        for (RentalExportService.Format candidate : RentalExportService.Format.values()) {
+            if (candidate.name().equalsIgnoreCase(format)) {
+                return candidate;
+            }
+        }
+        throw new UnsupportedFormatException("Unsupported export format: " + format + " (use ndjson or csv)");
+    }
 
     private RentalDTO convertToDto(Rental rental) {
         RentalDTO rentalDTO = new RentalDTO();
@@ -1,5 +1,6 @@
 package com.rentvideo.rentvideo.controller;
 
+import com.rentvideo.rentvideo.dto.PageResponse;
 import com.rentvideo.rentvideo.dto.UserCreationDTO;
 import com.rentvideo.rentvideo.dto.UserDTO;
 import com.rentvideo.rentvideo.exception.ResourceNotFoundException;
@@ -29,12 +30,14 @@ public class UserController {
     // Admin only
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        List<UserDTO> userDTOS = users.stream()
+    public ResponseEntity<PageResponse<UserDTO>> getAllUsers(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        int pageSize = PageResponse.clampLimit(limit);
+        List<UserDTO> userDTOS = userService.getUsersAfter(after, pageSize + 1).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(userDTOS);
+        return ResponseEntity.ok(PageResponse.fromSlice(userDTOS, pageSize, UserDTO::getId));
     }
 
     // Admin only
@@ -62,7 +65,7 @@ public class UserController {
 
     // Admin or self (if authenticated user matches ID)
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or authentication.principal.username == @userService.getUserById(#id).username")
+    @PreAuthorize("hasRole('ADMIN') or #id == authentication.principal.id")
     public ResponseEntity<UserDTO> updateUser(@PathVariable Long id, @Valid @RequestBody UserDTO userDTO) {
         User userDetails = new User();
         userDetails.setEmail(userDTO.getEmail()); // Only email can be updated here
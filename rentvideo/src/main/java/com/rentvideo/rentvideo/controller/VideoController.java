@@ -1,14 +1,25 @@
 package com.rentvideo.rentvideo.controller;
 
+import com.rentvideo.rentvideo.dto.PageResponse;
+import com.rentvideo.rentvideo.dto.VideoBrowseResponse;
 import com.rentvideo.rentvideo.dto.VideoDTO;
+import com.rentvideo.rentvideo.dto.VideoImportReport;
+import com.rentvideo.rentvideo.dto.VideoSuggestionDTO;
+import com.rentvideo.rentvideo.exception.UnsupportedFormatException;
 import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.service.VideoFacetIndex;
+import com.rentvideo.rentvideo.service.VideoImportService;
 import com.rentvideo.rentvideo.service.VideoService;
+import com.rentvideo.rentvideo.service.VideoSuggester;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -17,20 +28,27 @@ import java.util.stream.Collectors;
 public class VideoController {
 
     private final VideoService videoService;
+    private final VideoSuggester videoSuggester;
+    private final VideoImportService videoImportService;
 
-    public VideoController(VideoService videoService) {
+    public VideoController(VideoService videoService, VideoSuggester videoSuggester,
+                           VideoImportService videoImportService) {
         this.videoService = videoService;
+        this.videoSuggester = videoSuggester;
+        this.videoImportService = videoImportService;
     }
 
     // Accessible by all authenticated users
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<VideoDTO>> getAllVideos() {
-        List<Video> videos = videoService.getAllVideos();
-        List<VideoDTO> videoDTOS = videos.stream()
+    public ResponseEntity<PageResponse<VideoDTO>> getAllVideos(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        int pageSize = PageResponse.clampLimit(limit);
+        List<VideoDTO> videoDTOS = videoService.getVideosAfter(after, pageSize + 1).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(videoDTOS);
+        return ResponseEntity.ok(PageResponse.fromSlice(videoDTOS, pageSize, VideoDTO::getId));
     }
 
     // Accessible by all authenticated users
@@ -52,6 +70,40 @@ public class VideoController {
         return ResponseEntity.ok(videoDTOS);
     }
 
+    // Accessible by all authenticated users; combined filters plus genre/decade facet counts in one call
+    @GetMapping("/browse")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<VideoBrowseResponse> browseVideos(
+            @RequestParam(required = false) List<String> genre,
+            @RequestParam(required = false) Integer minYear,
+            @RequestParam(required = false) Integer maxYear,
+            @RequestParam(required = false) String director,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + PageResponse.DEFAULT_LIMIT) int limit) {
+        int pageSize = PageResponse.clampLimit(limit);
+        VideoFacetIndex.Filter filter = new VideoFacetIndex.Filter(genre == null ? null : new HashSet<>(genre),
+                minYear, maxYear, director, minPrice, maxPrice, inStock);
+        VideoFacetIndex.Result result = videoService.browseVideos(filter, after, pageSize + 1);
+        List<VideoDTO> videoDTOS = videoService.getVideosByIds(result.videoIds()).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new VideoBrowseResponse(PageResponse.fromSlice(videoDTOS, pageSize, VideoDTO::getId),
+                result.total(), result.genreCounts(), result.decadeCounts()));
+    }
+
+    // Accessible by all authenticated users; typeahead over titles and directors, most rented first
+    @GetMapping("/suggest")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<VideoSuggestionDTO>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "" + VideoSuggester.DEFAULT_LIMIT) int limit) {
+        int count = Math.max(1, Math.min(limit, VideoSuggester.MAX_LIMIT));
+        return ResponseEntity.ok(videoSuggester.suggest(prefix, count));
+    }
+
     // Admin only
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -61,6 +113,15 @@ public class VideoController {
         return new ResponseEntity<>(convertToDto(createdVideo), HttpStatus.CREATED);
     }
 
+    // Admin only - streams a CSV (with header row) or NDJSON catalog; invalid rows are reported, not fatal
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<VideoImportReport> importVideos(@RequestParam(defaultValue = "ndjson") String format,
+                                                          InputStream body) throws IOException {
+        VideoImportService.Format importFormat = importFormat(format);
+        return ResponseEntity.ok(videoImportService.importVideos(body, importFormat));
+    }
+
     // Admin only
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -78,6 +139,16 @@ public class VideoController {
         return ResponseEntity.noContent().build();
     }
 
+    // Case-insensitive; anything else is the client's mistake (400), never an internal error
+    private static VideoImportService.Format importFormat(String format) {
+        for (VideoImportService.Format candidate : VideoImportService.Format.values()) {
+            if (candidate.name().equalsIgnoreCase(format)) {
+                return candidate;
+            }
+        }
+        throw new UnsupportedFormatException("Unsupported import format: " + format + " (use ndjson or csv)");
+    }
+
     private VideoDTO convertToDto(Video video) {
         VideoDTO videoDTO = new VideoDTO();
         videoDTO.setId(video.getId());
@@ -0,0 +1,21 @@
+package com.rentvideo.rentvideo.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRentalRequest {
+
+    @NotEmpty(message = "At least one video id is required")
+    @Size(max = 50, message = "At most 50 videos per batch")
+    private List<Long> videoIds;
+
+    private boolean atomic = true; // All-or-nothing; false keeps the items that succeeded
+}
@@ -0,0 +1,25 @@
+package com.rentvideo.rentvideo.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Rentals created or closed by a batch call, plus the items that failed (an atomic batch that failed has no rentals)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRentalResponse {
+    private List<RentalDTO> rentals = new ArrayList<>();
+    private List<ItemError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemError {
+        private Long videoId;
+        private String message;
+    }
+}
@@ -0,0 +1,35 @@
+package com.rentvideo.rentvideo.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset-paginated listing; pass nextCursor back as 'after' to get the following page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private List<T> items;
+    private int limit;
+    private boolean hasMore;
+    private Long nextCursor; // Null on the last page
+
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // Repositories fetch limit + 1 rows; the extra row only tells us whether another page exists
+    public static <T> PageResponse<T> fromSlice(List<T> fetched, int limit, Function<T, Long> cursorOf) {
+        boolean hasMore = fetched.size() > limit;
+        List<T> items = hasMore ? fetched.subList(0, limit) : fetched;
+        Long nextCursor = hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new PageResponse<>(items, limit, hasMore, nextCursor);
+    }
+}
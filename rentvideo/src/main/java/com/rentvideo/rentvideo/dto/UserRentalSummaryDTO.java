@@ -0,0 +1,20 @@
+package com.rentvideo.rentvideo.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRentalSummaryDTO {
+    private Long userId;
+    private int activeCount;
+    private long lifetimeRentals;
+    private double lifetimeSpend; // Sum of totalCost over returned rentals
+    private LocalDate lastRentalDate; // Null if the user never rented
+    private List<RentalDTO> activeRentals; // Only the unreturned rentals, never the full history
+}
@@ -0,0 +1,18 @@
+package com.rentvideo.rentvideo.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.Map;
+
+// Browse page in one response: the current page of matches plus facet counts for the whole filter
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VideoBrowseResponse {
+    private PageResponse<VideoDTO> page;
+    private int total; // Matches across all pages
+    private Map<String, Integer> genreCounts; // Most common genre first
+    private Map<Integer, Integer> decadeCounts; // Keyed by the decade's first year, e.g. 1990
+}
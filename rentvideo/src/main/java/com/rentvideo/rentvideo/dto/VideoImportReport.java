@@ -0,0 +1,28 @@
+package com.rentvideo.rentvideo.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk import; rows that failed are listed with the line they started on
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VideoImportReport {
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>(); // Capped; see errorsTruncated
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
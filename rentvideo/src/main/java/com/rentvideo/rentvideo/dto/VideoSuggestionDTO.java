@@ -0,0 +1,15 @@
+package com.rentvideo.rentvideo.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VideoSuggestionDTO {
+    private String text; // Title or director name to show in the dropdown
+    private String field; // "title" or "director"
+    private Long videoId; // Set for title suggestions only
+    private long popularity; // Lifetime rentals (summed over all titles for a director)
+}
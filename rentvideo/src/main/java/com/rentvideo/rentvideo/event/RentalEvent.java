@@ -0,0 +1,33 @@
+package com.rentvideo.rentvideo.event;
+
+import com.rentvideo.rentvideo.model.Rental;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// A rent or return, as delivered to RentalEventSinks; eventId is the outbox row id and is unique per event
+public record RentalEvent(Long eventId, Type type, Long rentalId, Long userId, Long videoId,
+                          LocalDate rentalDate, LocalDate returnDate, Double totalCost, Instant occurredAt) {
+
+    public enum Type {
+        RENTED,
+        RETURNED
+    }
+
+    public static RentalEvent rented(Rental rental) {
+        return of(Type.RENTED, rental);
+    }
+
+    public static RentalEvent returned(Rental rental) {
+        return of(Type.RETURNED, rental);
+    }
+
+    public RentalEvent withEventId(Long eventId) {
+        return new RentalEvent(eventId, type, rentalId, userId, videoId, rentalDate, returnDate, totalCost, occurredAt);
+    }
+
+    private static RentalEvent of(Type type, Rental rental) {
+        return new RentalEvent(null, type, rental.getId(), rental.getUser().getId(), rental.getVideo().getId(),
+                rental.getRentalDate(), rental.getReturnDate(), rental.getTotalCost(), Instant.now());
+    }
+}
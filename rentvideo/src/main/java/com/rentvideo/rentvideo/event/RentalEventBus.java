@@ -0,0 +1,27 @@
+package com.rentvideo.rentvideo.event;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// In-process fan-out of rental event batches to every RentalEventSink bean
+@Component
+public class RentalEventBus {
+
+    private final List<RentalEventSink> sinks;
+
+    public RentalEventBus(ObjectProvider<RentalEventSink> sinks) {
+        this.sinks = sinks.orderedStream().toList();
+    }
+
+    public void publish(List<RentalEvent> events) throws Exception {
+        for (RentalEventSink sink : sinks) {
+            sink.accept(events);
+        }
+    }
+
+    public int getSinkCount() {
+        return sinks.size();
+    }
+}
@@ -0,0 +1,9 @@
+package com.rentvideo.rentvideo.event;
+
+import java.util.List;
+
+// Downstream consumer of rental events (analytics, billing, ...). Register any number of these as beans.
+// Delivery is at-least-once and in outbox order: a batch is redelivered if any sink throws, so use eventId to skip duplicates.
+public interface RentalEventSink {
+    void accept(List<RentalEvent> events) throws Exception;
+}
@@ -0,0 +1,25 @@
+package com.rentvideo.rentvideo.event;
+
+import com.rentvideo.rentvideo.model.Video;
+
+// Published by VideoService on every catalog write; listeners keep their in-memory views in sync after commit
+public record VideoChangedEvent(Type type, Long videoId, Video video) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static VideoChangedEvent created(Video video) {
+        return new VideoChangedEvent(Type.CREATED, video.getId(), video);
+    }
+
+    public static VideoChangedEvent updated(Video video) {
+        return new VideoChangedEvent(Type.UPDATED, video.getId(), video);
+    }
+
+    public static VideoChangedEvent deleted(Long videoId) {
+        return new VideoChangedEvent(Type.DELETED, videoId, null);
+    }
+}
@@ -0,0 +1,12 @@
+package com.rentvideo.rentvideo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// The access token carries no user id (issued before the uid claim existed); signing in again issues one that does
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class MissingUserIdException extends RuntimeException {
+    public MissingUserIdException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.rentvideo.rentvideo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Load shedding: the work was refused up front because its dedicated capacity is used up; safe to retry shortly
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
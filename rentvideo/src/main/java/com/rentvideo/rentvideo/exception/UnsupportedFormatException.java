@@ -0,0 +1,12 @@
+package com.rentvideo.rentvideo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// A format request parameter (export or import) names a format this endpoint does not support
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedFormatException extends RuntimeException {
+    public UnsupportedFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,31 @@
+package com.rentvideo.rentvideo.logging;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a random sample of the SQL Hibernate prepares, instead of every statement as show-sql does.
+ * Enough to see the query mix in production at a fraction of the log volume; slow statements are
+ * logged separately and in full by Hibernate's own slow query log.
+ */
+public class SampledSqlLogger implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger("sql.sampled");
+
+    private final double sampleRate;
+
+    public SampledSqlLogger(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (ThreadLocalRandom.current().nextDouble() < sampleRate && log.isInfoEnabled()) {
+            log.info(sql);
+        }
+        return sql; // Never rewritten
+    }
+}
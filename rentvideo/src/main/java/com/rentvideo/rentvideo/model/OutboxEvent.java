@@ -0,0 +1,37 @@
+package com.rentvideo.rentvideo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+
+// Rental events written in the same transaction as the rental itself, drained later by OutboxPublisher
+@Entity
+@Table(name = "outbox_events", indexes = @Index(name = "idx_outbox_events_unpublished", columnList = "published_at, failed_at, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Also the delivery order
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(nullable = false)
+    private Long aggregateId; // Rental id
+
+    @Column(nullable = false, length = 2000)
+    private String payload; // RentalEvent as JSON
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant publishedAt; // Null until every sink has accepted the event
+
+    private Instant failedAt; // Set instead when the payload cannot be read; such events are never delivered
+}
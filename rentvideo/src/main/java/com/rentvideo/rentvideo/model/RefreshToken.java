@@ -0,0 +1,36 @@
+package com.rentvideo.rentvideo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// One row per issued refresh token. Only a SHA-256 of the token is stored; each rotation adds a row to the same family
+@Entity
+@Table(name = "refresh_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 32)
+    private byte[] tokenHash;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private UUID familyId; // Shared by every token descended from one login
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private Instant usedAt; // Set when exchanged; presenting the token again means it was copied
+}
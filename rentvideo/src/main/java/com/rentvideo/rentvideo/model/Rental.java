@@ -7,8 +7,13 @@ import lombok.AllArgsConstructor;
 
 import java.time.LocalDate;
 
+// Indexes mirror db/migration/*/V2__rental_indexes.sql (PostgreSQL uses a partial index for the active-rental check)
 @Entity
-@Table(name = "rentals")
+@Table(name = "rentals", indexes = {
+        @Index(name = "idx_rentals_user_video_return", columnList = "user_id, video_id, return_date"),
+        @Index(name = "idx_rentals_user_rental_date", columnList = "user_id, rental_date"),
+        @Index(name = "idx_rentals_video", columnList = "video_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,4 +37,7 @@ public class Rental {
     private LocalDate returnDate; // Null if not returned yet
 
     private Double totalCost; // Calculated upon return
+
+    @Version
+    private Long version; // A rental is only returned once, even if two return requests race
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.rentvideo.rentvideo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+
+// A revoked access token (its jti) or a revoked token version of one user ("u:<userId>:<version>").
+// Rows are only needed until the tokens they cover have expired, so the table stays small.
+@Entity
+@Table(name = "revoked_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @Column(length = 64)
+    private String tokenKey;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -35,5 +35,9 @@ public class User {
     )
     private Set<Role> roles = new HashSet<>();
 
+    // Bumped to revoke every access token issued so far (see TokenRevocationService)
+    @Column(nullable = false)
+    private int tokenVersion;
+
     // Add convenience methods if needed
 }
\ No newline at end of file
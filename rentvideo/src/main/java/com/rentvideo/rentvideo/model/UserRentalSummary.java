@@ -0,0 +1,31 @@
+package com.rentvideo.rentvideo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+
+// Per-user rental totals, kept current by RentalService so the profile page never scans the rental history
+@Entity
+@Table(name = "user_rental_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRentalSummary {
+
+    @Id
+    private Long userId; // Same id as the user; one row per user, created on first use
+
+    @Column(nullable = false)
+    private int activeCount;
+
+    @Column(nullable = false)
+    private long lifetimeRentals;
+
+    @Column(nullable = false)
+    private double lifetimeSpend;
+
+    private LocalDate lastRentalDate;
+}
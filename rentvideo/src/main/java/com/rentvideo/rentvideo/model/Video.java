@@ -14,8 +14,10 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class Video {
 
+    // Pooled sequence instead of IDENTITY: ids are known before the INSERT, so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "videos_seq")
+    @SequenceGenerator(name = "videos_seq", sequenceName = "videos_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
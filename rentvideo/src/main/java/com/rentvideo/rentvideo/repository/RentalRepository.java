@@ -1,16 +1,81 @@
 package com.rentvideo.rentvideo.repository;
+import com.rentvideo.rentvideo.dto.RentalDTO;
 import com.rentvideo.rentvideo.model.Rental;
 import com.rentvideo.rentvideo.model.User;
 import com.rentvideo.rentvideo.model.Video;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RentalRepository extends JpaRepository<Rental, Long> {
+
+    // Rental rows joined with username and title in one SELECT, instead of two lazy loads per rental
+    String RENTAL_DTO_SELECT = "SELECT new com.rentvideo.rentvideo.dto.RentalDTO(" +
+            "r.id, u.id, u.username, v.id, v.title, r.rentalDate, r.returnDate, r.totalCost) " +
+            "FROM Rental r JOIN r.user u JOIN r.video v ";
+
     List<Rental> findByUser(User user);
+
+    @Query("SELECT r FROM Rental r JOIN FETCH r.user JOIN FETCH r.video WHERE r.id = :id")
+    Optional<Rental> findWithUserAndVideoById(@Param("id") Long id);
+
     Optional<Rental> findByVideoAndUserAndReturnDateIsNull(Video video, User user);
     Boolean existsByVideoAndUserAndReturnDateIsNull(Video video, User user);
+
+    // Keyset pagination: seeks on the primary key instead of scanning past an offset
+    @Query(RENTAL_DTO_SELECT + "WHERE r.id > :after ORDER BY r.id")
+    List<RentalDTO> findDtosAfter(@Param("after") Long after, Limit limit);
+
+    @Query(RENTAL_DTO_SELECT + "WHERE u.id = :userId ORDER BY r.id")
+    List<RentalDTO> findDtosByUserId(@Param("userId") Long userId);
+
+    @Query(RENTAL_DTO_SELECT + "WHERE u.id = :userId AND r.returnDate IS NULL ORDER BY r.id")
+    List<RentalDTO> findActiveDtosByUserId(@Param("userId") Long userId);
+
+    // One-off backfill of a user's rental summary; normally the summary is maintained incrementally
+    @Query("SELECT COUNT(r) AS lifetimeRentals, SUM(CASE WHEN r.returnDate IS NULL THEN 1 ELSE 0 END) AS activeCount, " +
+            "COALESCE(SUM(r.totalCost), 0) AS lifetimeSpend, MAX(r.rentalDate) AS lastRentalDate " +
+            "FROM Rental r WHERE r.user.id = :userId")
+    RentalTotals summarizeByUserId(@Param("userId") Long userId);
+
+    // Whole history as a forward-only cursor of DTOs (nothing is attached to the persistence context); close the stream
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(RENTAL_DTO_SELECT + "ORDER BY r.id")
+    Stream<RentalDTO> streamAllAsDto();
+
+    // Batch checkout: which of these titles the user still has out, in one query
+    @Query("SELECT r.video.id FROM Rental r WHERE r.user.id = :userId AND r.video.id IN :videoIds AND r.returnDate IS NULL")
+    List<Long> findActiveVideoIds(@Param("userId") Long userId, @Param("videoIds") Collection<Long> videoIds);
+
+    // Batch return: the user's open rentals for these titles, with the video fetched for pricing
+    @Query("SELECT r FROM Rental r JOIN FETCH r.video WHERE r.user.id = :userId AND r.video.id IN :videoIds AND r.returnDate IS NULL")
+    List<Rental> findActiveByUserIdAndVideoIds(@Param("userId") Long userId, @Param("videoIds") Collection<Long> videoIds);
+
+    // Lifetime rentals per video in one aggregate, used to rank autocomplete suggestions
+    @Query("SELECT r.video.id AS videoId, COUNT(r) AS rentals FROM Rental r GROUP BY r.video.id")
+    List<VideoRentalCount> countRentalsPerVideo();
+
+    interface RentalTotals {
+        Long getLifetimeRentals();
+        Long getActiveCount();
+        Double getLifetimeSpend();
+        LocalDate getLastRentalDate();
+    }
+
+    interface VideoRentalCount {
+        Long getVideoId();
+        Long getRentals();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.rentvideo.rentvideo.repository;
+
+import com.rentvideo.rentvideo.model.UserRentalSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+// Both updates are single relative UPDATEs, so concurrent rentals by the same user never lose an increment.
+// They return 0 when the user has no summary row yet.
+@Repository
+public interface UserRentalSummaryRepository extends JpaRepository<UserRentalSummary, Long> {
+
+    @Modifying
+    @Query("UPDATE UserRentalSummary s SET s.activeCount = s.activeCount + 1, s.lifetimeRentals = s.lifetimeRentals + 1, " +
+            "s.lastRentalDate = CASE WHEN s.lastRentalDate IS NULL OR s.lastRentalDate < :rentalDate " +
+            "THEN :rentalDate ELSE s.lastRentalDate END WHERE s.userId = :userId")
+    int recordRental(@Param("userId") Long userId, @Param("rentalDate") LocalDate rentalDate);
+
+    @Modifying
+    @Query("UPDATE UserRentalSummary s SET s.activeCount = s.activeCount - 1, s.lifetimeSpend = s.lifetimeSpend + :cost " +
+            "WHERE s.userId = :userId")
+    int recordReturn(@Param("userId") Long userId, @Param("cost") double cost);
+}
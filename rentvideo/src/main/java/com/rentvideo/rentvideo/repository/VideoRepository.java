@@ -1,7 +1,11 @@
 package com.rentvideo.rentvideo.repository;
 
 import com.rentvideo.rentvideo.model.Video;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,4 +17,28 @@ public interface VideoRepository extends JpaRepository<Video, Long> {
     List<Video> findByGenreContainingIgnoreCase(String genre);
     List<Video> findByDirectorContainingIgnoreCase(String director);
     List<Video> findByReleaseYear(Integer releaseYear);
-}
\ No newline at end of file
+
+    // Keyset pagination: seeks on the primary key instead of scanning past an offset
+    List<Video> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Only the columns needed to seed the in-memory inventory counters
+    @Query("SELECT v.id AS id, v.availableCopies AS availableCopies FROM Video v")
+    List<VideoAvailability> findAllAvailability();
+
+    @Query("SELECT v.availableCopies FROM Video v WHERE v.id = :id")
+    Optional<Integer> findAvailableCopiesById(@Param("id") Long id);
+
+    // Takes one copy in a single statement; returns 0 if the video does not exist or has no copies left
+    @Modifying
+    @Query("UPDATE Video v SET v.availableCopies = v.availableCopies - 1 WHERE v.id = :id AND v.availableCopies > 0")
+    int decrementAvailableCopies(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Video v SET v.availableCopies = v.availableCopies + 1 WHERE v.id = :id")
+    int incrementAvailableCopies(@Param("id") Long id);
+
+    interface VideoAvailability {
+        Long getId();
+        Integer getAvailableCopies();
+    }
+}
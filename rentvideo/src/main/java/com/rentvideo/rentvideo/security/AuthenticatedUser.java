@@ -0,0 +1,48 @@
+package com.rentvideo.rentvideo.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Principal of an authenticated request: the usual UserDetails plus the user's id, so controllers and
+ * @PreAuthorize ownership checks (authentication.principal.id) need no user lookup by name.
+ * The id is null only for tokens issued without a uid claim. Email and token version are only known when the
+ * principal was loaded from the users row (username/password login) and are null when it was rebuilt from a token.
+ */
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+    private final String email;
+    private final Integer tokenVersion;
+
+    public AuthenticatedUser(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        this(id, username, password, null, null, authorities);
+    }
+
+    public AuthenticatedUser(Long id, String username, String password, String email, Integer tokenVersion,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+        this.email = email;
+        this.tokenVersion = tokenVersion;
+    }
+
+    // Same user after a password rehash
+    public AuthenticatedUser withPassword(String password) {
+        return new AuthenticatedUser(id, getUsername(), password, email, tokenVersion, getAuthorities());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
+}
@@ -0,0 +1,37 @@
+package com.rentvideo.rentvideo.security;
+
+import com.rentvideo.rentvideo.exception.ServiceBusyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * Username/password authentication whose rehash-on-login is best effort. The new hash is computed on the
+ * bounded hashing pool after the password has already matched; if that pool is busy the login still
+ * succeeds with the old hash, which is upgraded on a later login instead of failing this one with a 503.
+ */
+public class BestEffortRehashAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(BestEffortRehashAuthenticationProvider.class);
+
+    public BestEffortRehashAuthenticationProvider(UserDetailsService userDetailsService) {
+        super(userDetailsService);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        try {
+            return super.createSuccessAuthentication(principal, authentication, user);
+        } catch (ServiceBusyException e) {
+            log.info("Password rehash for {} skipped, hashing pool busy", user.getUsername());
+            UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, authentication.getCredentials(), user.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.rentvideo.rentvideo.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt whose cost is pinned in configuration or, opt-in, picked by timing this host at startup, and which
+ * asks for a rehash whenever a stored hash was made with a different cost, higher or lower. Together with the
+ * rehash-on-login done by BestEffortRehashAuthenticationProvider (DaoAuthenticationProvider's
+ * UserDetailsPasswordService hook, which stores the new hash) this moves every stored hash to the configured cost. Hosts
+ * serving the same users must agree on the cost, or each login on another host rehashes the password again.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * The highest cost in [minStrength, maxStrength] whose hash takes no longer than targetMillis here,
+     * or minStrength if even that is slower. Each cost step doubles the time, so one measurement suffices.
+     */
+    public static CalibratedBCryptPasswordEncoder calibrate(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder warmUp = new BCryptPasswordEncoder(4);
+        for (int i = 0; i < 20; i++) {
+            warmUp.encode("calibration"); // Let the JIT compile BCrypt before anything is timed
+        }
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        long fastestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            fastestNanos = Math.min(fastestNanos, System.nanoTime() - start);
+        }
+
+        double millisPerHash = fastestNanos / 1_000_000.0;
+        int strength = minStrength;
+        while (strength < maxStrength && millisPerHash * 2 <= targetMillis) {
+            millisPerHash *= 2;
+            strength++;
+        }
+        log.info("BCrypt cost calibrated to {} (about {} ms per hash, target {} ms)",
+                strength, Math.round(millisPerHash), targetMillis);
+        return new CalibratedBCryptPasswordEncoder(strength);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+}
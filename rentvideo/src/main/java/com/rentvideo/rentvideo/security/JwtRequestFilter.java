@@ -1,10 +1,16 @@
 package com.rentvideo.rentvideo.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -13,16 +19,26 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final ObjectProvider<TokenRevocationChecker> revocationCheckers;
+    private final VerifiedTokenCache tokenCache;
 
-    public JwtRequestFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil) {
+    // When true the Authentication is built from the verified token claims instead of reloading the user
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
+
+    public JwtRequestFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil,
+                            ObjectProvider<TokenRevocationChecker> revocationCheckers, VerifiedTokenCache tokenCache) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.revocationCheckers = revocationCheckers;
+        this.tokenCache = tokenCache;
     }
 
     @Override
@@ -31,29 +47,65 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7); // "Bearer " is 7 characters long
-            username = jwtUtil.extractUsername(jwt);
+        // Only authenticate if a bearer token is present and no authentication is currently set in SecurityContext
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7); // "Bearer " is 7 characters long
+            try {
+                // The token is verified exactly once; both paths work from the same parsed claims
+                Claims claims = verifiedClaims(jwt);
+                UserDetails userDetails = isRevoked(claims) ? null
+                        : stateless ? authenticateFromClaims(claims) : authenticateFromDatabase(claims);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    usernamePasswordAuthenticationToken
+                            .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Malformed, tampered or expired token: leave the request unauthenticated so the entry point answers 401
+                logger.debug("Rejected JWT: " + e.getMessage());
+            }
         }
+        chain.doFilter(request, response); // Continue with the filter chain
+    }
 
-        // If username is found and no authentication is currently set in SecurityContext
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+    // Repeat requests with the same token are served from the cache and skip signature verification
+    private Claims verifiedClaims(String jwt) {
+        Claims claims = tokenCache.get(jwt);
+        if (claims == null) {
+            claims = jwtUtil.parseToken(jwt);
+            tokenCache.put(jwt, claims);
+        }
+        return claims;
+    }
 
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+    // Checked on both paths: a logged-out token must not work even while its user still exists
+    private boolean isRevoked(Claims claims) {
+        return revocationCheckers.orderedStream().anyMatch(checker -> checker.isRevoked(claims));
+    }
 
-            // If token is valid, configure Spring Security to manually set authentication
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+    // Stateless path: signature and expiry are verified by the parser, roles come from the token itself
+    private UserDetails authenticateFromClaims(Claims claims) {
+        if (claims.getSubject() == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = jwtUtil.extractRoles(claims).stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .toList();
+        // Password is never needed after the token has been verified
+        return new AuthenticatedUser(claims.get(JwtUtil.USER_ID_CLAIM, Long.class), claims.getSubject(), "", authorities);
+    }
 
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-            }
+    // Original path: reload the user on every request so role changes and deletions apply immediately
+    private UserDetails authenticateFromDatabase(Claims claims) {
+        String username = claims.getSubject();
+        if (username == null) {
+            return null;
         }
-        chain.doFilter(request, response); // Continue with the filter chain
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        // If token is valid, configure Spring Security to manually set authentication
+        return jwtUtil.validateToken(claims, userDetails) ? userDetails : null;
     }
-}
\ No newline at end of file
+}
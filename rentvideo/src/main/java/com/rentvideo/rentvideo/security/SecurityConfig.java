@@ -1,18 +1,24 @@
 package com.rentvideo.rentvideo.security;
 
+import com.rentvideo.rentvideo.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration; // Correct import for AuthenticationManager
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter; // Needed for JWT filter
 
+import java.util.Map;
+
 // NOTE: Remove unused imports if they cause issues:
 // import com.rentvideo.model.Role; // Not directly used in SecurityConfig
 // import com.rentvideo.repository.UserRepository; // Not directly used in SecurityConfig
@@ -34,9 +40,37 @@ public class SecurityConfig {
         this.jwtRequestFilter = jwtRequestFilter;
     }
 
+    // BCrypt on its own small pool: logins and registrations queue there (bounded) instead of on request threads
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength,
+                                           @Value("${security.password.bcrypt-target-ms:100}") long targetMillis,
+                                           @Value("${security.password.bcrypt-min-strength:10}") int minStrength,
+                                           @Value("${security.password.bcrypt-max-strength:14}") int maxStrength,
+                                           @Value("${security.password.hashing.threads:0}") int threads,
+                                           @Value("${security.password.hashing.queue-capacity:50}") int queueCapacity,
+                                           @Value("${security.password.hashing.max-wait-ms:2000}") long maxWaitMillis) {
+        CalibratedBCryptPasswordEncoder bcrypt = strength > 0
+                ? new CalibratedBCryptPasswordEncoder(strength)
+                : CalibratedBCryptPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength);
+        // New hashes are stored as {bcrypt}...; hashes from before the prefix are plain BCrypt and get rehashed on login
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        if (threads <= 0) {
+            // Default: half the cores, so a login storm still leaves the other half to the rest of the API
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        return new OffloadingPasswordEncoder(delegating, threads, queueCapacity, maxWaitMillis);
+    }
+
+    // Login against the users table; a stored hash needing an upgrade is rehashed only if the hashing pool has room
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public DaoAuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService,
+                                                            PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider provider = new BestEffortRehashAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
+        return provider;
     }
 
     // Use AuthenticationConfiguration to get the AuthenticationManager
@@ -53,7 +87,9 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // Stateless session for JWT
             .authorizeHttpRequests(authorize -> authorize
                 // Allow these specific authentication endpoints without authentication
-                .requestMatchers("/api/auth/register", "/api/auth/login", "/h2-console/**").permitAll()
+                .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/refresh", "/h2-console/**").permitAll()
+                // Async dispatches only complete streamed responses whose initial request was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // You might also want to allow GET for all videos publicly if applicable
                 // .requestMatchers(HttpMethod.GET, "/api/videos", "/api/videos/{id}").permitAll()
                 // All other requests require authentication
@@ -0,0 +1,9 @@
+package com.rentvideo.rentvideo.security;
+
+import io.jsonwebtoken.Claims;
+
+// Hook consulted by JwtRequestFilter for every verified token, before the request is authenticated.
+// Register any number of these as beans; a token is rejected if one of them reports it revoked.
+public interface TokenRevocationChecker {
+    boolean isRevoked(Claims claims);
+}
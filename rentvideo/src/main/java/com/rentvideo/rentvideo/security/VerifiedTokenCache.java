@@ -0,0 +1,154 @@
+package com.rentvideo.rentvideo.security;
+
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified, so that clients reusing
+ * the same bearer token skip the Base64 decode, HMAC check and JSON parse on repeat requests.
+ * Entries are keyed by a SHA-256 digest of the token (the raw token is never kept) and are
+ * dropped no later than the token's own exp claim. Hit, miss and eviction counts are logged
+ * periodically (logger com.rentvideo.rentvideo.security.VerifiedTokenCache, INFO).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final Logger log = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final int maxSize;
+
+    // Totals at the previous stats line, so each line reports its own interval
+    private long loggedHits;
+    private long loggedMisses;
+    private long loggedEvictions;
+
+    private record Entry(Claims claims, long expiresAtMillis) {
+    }
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // Returns the verified claims for this token, or null if it has to be parsed again
+    public Claims get(String token) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.claims();
+    }
+
+    // Only call with claims returned by JwtUtil.parseToken, i.e. after the signature was checked
+    public void put(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (maxSize <= 0 || expiration == null) {
+            return; // Tokens without exp are never cached
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(digest(token), new Entry(claims, expiration.getTime()));
+    }
+
+    public void invalidate(String token) {
+        entries.remove(digest(token));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // One line per interval with traffic: a falling hit ratio means clients are not reusing tokens or the cache is too small
+    @Scheduled(fixedDelayString = "${jwt.cache.stats-interval-ms:60000}", initialDelayString = "${jwt.cache.stats-interval-ms:60000}")
+    public synchronized void logStats() {
+        long totalHits = getHits();
+        long totalMisses = getMisses();
+        long totalEvictions = getEvictions();
+        long intervalHits = totalHits - loggedHits;
+        long intervalMisses = totalMisses - loggedMisses;
+        long intervalEvictions = totalEvictions - loggedEvictions;
+        loggedHits = totalHits;
+        loggedMisses = totalMisses;
+        loggedEvictions = totalEvictions;
+        long lookups = intervalHits + intervalMisses;
+        if (lookups > 0) {
+            log.info("Verified token cache: {} hits, {} misses ({}% hit ratio), {} evictions, {} entries",
+                    intervalHits, intervalMisses, intervalHits * 100 / lookups, intervalEvictions, size());
+        }
+    }
+
+    // Drop expired tokens first; if the cache is still full, drop arbitrary entries down to 90% of capacity
+    private void evict() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        Iterator<Entry> values = entries.values().iterator();
+        while (values.hasNext()) {
+            if (values.next().expiresAtMillis() <= now) {
+                values.remove();
+                removed++;
+            }
+        }
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            removed++;
+        }
+        evictions.add(removed);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -8,4 +8,6 @@ import com.rentvideo.rentvideo.dto.UserResponse;
 public interface AuthService {
     UserResponse registerUser(RegisterRequest registerRequest);
     JwtResponse authenticateUser(LoginRequest loginRequest);
+    JwtResponse refreshToken(String refreshToken);
+    void logout(String accessToken, String refreshToken);
 }
\ No newline at end of file
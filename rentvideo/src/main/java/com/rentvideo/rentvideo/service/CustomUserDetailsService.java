@@ -2,10 +2,13 @@ package com.rentvideo.rentvideo.service;
 
 import com.rentvideo.rentvideo.model.User;
 import com.rentvideo.rentvideo.repository.UserRepository;
+import com.rentvideo.rentvideo.security.AuthenticatedUser;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 
@@ -13,7 +16,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -30,14 +33,29 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .map(role -> new SimpleGrantedAuthority(role.getName().name()))
                 .collect(Collectors.toSet());
 
-        return new org.springframework.security.core.userdetails.User(
+        // Carries everything login puts into the tokens and the response, so AuthService needs no second lookup
+        return new AuthenticatedUser(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(),
+                user.getEmail(),
+                user.getTokenVersion(),
                 authorities
         );
     }
 
-    // Helper method to get User entity from username (used in controllers for @PreAuthorize)
+    // Called by the authentication provider after a successful login whose stored hash needs upgrading
+    // (legacy format or a different BCrypt cost); newPassword is already the new hash
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        if (user instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.withPassword(newPassword);
+        }
+        return new AuthenticatedUser(null, user.getUsername(), newPassword, user.getAuthorities());
+    }
+
     public User getUserByUsername(String username) {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
@@ -0,0 +1,118 @@
+package com.rentvideo.rentvideo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentvideo.rentvideo.event.RentalEvent;
+import com.rentvideo.rentvideo.event.RentalEventBus;
+import com.rentvideo.rentvideo.model.OutboxEvent;
+import com.rentvideo.rentvideo.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background drain of the outbox table. Undelivered events are read in id order in batches,
+ * handed to the RentalEventBus and then marked published, so sinks see every committed rent and
+ * return without adding anything to the checkout request. If a sink fails, the batch stays
+ * unpublished and is retried on the next run. An event whose payload cannot be read would fail
+ * the same way forever, so it is dead-lettered (failed_at set, kept for inspection) and the rest
+ * of its batch is delivered. The table is only queried after a rental commit
+ * (or at startup, for events a previous run left behind), never while idle. Meant to run on a
+ * single instance.
+ */
+@Component
+public class OutboxPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxPublisher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RentalEventBus rentalEventBus;
+    private final ObjectMapper objectMapper;
+
+    // Starts set so the first run drains whatever a previous run left behind
+    private final AtomicBoolean pending = new AtomicBoolean(true);
+
+    @Value("${outbox.publisher.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours;
+
+    public OutboxPublisher(OutboxEventRepository outboxEventRepository, RentalEventBus rentalEventBus,
+                           ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rentalEventBus = rentalEventBus;
+        this.objectMapper = objectMapper;
+    }
+
+    // Called by RentalOutbox once a transaction carrying new events has committed
+    public void signal() {
+        pending.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.publisher.interval-ms:500}")
+    public void publishIfSignalled() {
+        if (pending.get()) {
+            publishPending();
+        }
+    }
+
+    // Returns the number of events delivered; synchronized so a manual call never overlaps the scheduled one
+    public synchronized int publishPending() {
+        pending.set(false); // Cleared before reading, so a commit signalled during the drain triggers another run
+        int delivered = 0;
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findByPublishedAtIsNullAndFailedAtIsNullOrderByIdAsc(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<RentalEvent> events = new ArrayList<>(batch.size());
+            List<Long> ids = new ArrayList<>(batch.size());
+            for (OutboxEvent outboxEvent : batch) {
+                try {
+                    events.add(toEvent(outboxEvent));
+                    ids.add(outboxEvent.getId());
+                } catch (JsonProcessingException e) {
+                    log.error("Corrupt outbox event {} set aside, it will not be delivered: {}", outboxEvent.getId(), e.getMessage());
+                    outboxEventRepository.markFailed(outboxEvent.getId(), Instant.now());
+                }
+            }
+            if (events.isEmpty()) {
+                continue; // The whole batch was corrupt; read the next one
+            }
+            try {
+                rentalEventBus.publish(events);
+            } catch (Exception e) {
+                log.warn("Rental event delivery failed, {} events will be retried: {}", events.size(), e.getMessage());
+                pending.set(true);
+                break;
+            }
+            outboxEventRepository.markPublished(ids, Instant.now());
+            delivered += events.size();
+        } while (batch.size() == batchSize);
+        return delivered;
+    }
+
+    // Delivered events are only kept for a while, for replay and troubleshooting
+    @Scheduled(fixedDelayString = "${outbox.purge.interval-ms:3600000}", initialDelayString = "${outbox.purge.interval-ms:3600000}")
+    public void purgePublished() {
+        int purged = outboxEventRepository.deletePublishedBefore(Instant.now().minus(Duration.ofHours(retentionHours)));
+        if (purged > 0) {
+            log.info("Purged {} published outbox events", purged);
+        }
+    }
+
+    private RentalEvent toEvent(OutboxEvent outboxEvent) throws JsonProcessingException {
+        return objectMapper.readValue(outboxEvent.getPayload(), RentalEvent.class).withEventId(outboxEvent.getId());
+    }
+}
@@ -0,0 +1,104 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.exception.InvalidRefreshTokenException;
+import com.rentvideo.rentvideo.model.RefreshToken;
+import com.rentvideo.rentvideo.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use refresh tokens. A client exchanges one for a new access token and a new refresh
+ * token with a single indexed lookup, instead of logging in again with a BCrypt check. Each exchange
+ * retires the presented token; if a retired token is ever presented again it must have been copied,
+ * so the whole family (every token descended from the same login) is deleted and that session ends.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpiration;
+
+    public record Rotation(Long userId, String refreshToken) {
+    }
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    // Starts a new family, at login
+    @Transactional
+    public String issue(Long userId) {
+        return store(userId, UUID.randomUUID());
+    }
+
+    /**
+     * Retires the presented token and returns its user with the next token of the same family.
+     * The family is deleted on reuse, so that commit must survive the exception.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+        Instant now = Instant.now();
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), now) == 0) {
+            refreshTokenRepository.deleteFamily(token.getFamilyId());
+            log.warn("Refresh token reused for user {}; revoked its token family", token.getUserId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used; please log in again");
+        }
+        if (token.getExpiresAt().isBefore(now)) {
+            throw new InvalidRefreshTokenException("Refresh token has expired; please log in again");
+        }
+        return new Rotation(token.getUserId(), store(token.getUserId(), token.getFamilyId()));
+    }
+
+    // Ends the session the token belongs to, e.g. on logout; unknown tokens are ignored
+    @Transactional
+    public void revokeFamily(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.deleteFamily(token.getFamilyId()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval-ms:3600000}", initialDelayString = "${jwt.refresh-purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpiredBefore(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private String store(Long userId, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant expiresAt = Instant.now().plusMillis(refreshExpiration);
+        refreshTokenRepository.save(new RefreshToken(null, hash(rawToken), userId, familyId, expiresAt, null));
+        return rawToken;
+    }
+
+    // The raw token is never stored, so a leaked table cannot be replayed
+    private static byte[] hash(String rawToken) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
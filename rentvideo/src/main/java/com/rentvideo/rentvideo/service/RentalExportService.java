@@ -0,0 +1,89 @@
+package com.rentvideo.rentvideo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentvideo.rentvideo.dto.RentalDTO;
+import com.rentvideo.rentvideo.repository.RentalRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Writes the full rental history row by row. Rows come from a forward-only cursor as DTO
+ * projections, so nothing accumulates in the persistence context and memory stays flat
+ * regardless of how many rentals exist.
+ */
+@Service
+public class RentalExportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final String CSV_HEADER = "id,userId,username,videoId,videoTitle,rentalDate,returnDate,totalCost";
+
+    private final RentalRepository rentalRepository;
+    private final ObjectMapper objectMapper;
+
+    public RentalExportService(RentalRepository rentalRepository, ObjectMapper objectMapper) {
+        this.rentalRepository = rentalRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Must stay open for the whole write: the stream is backed by a live JDBC cursor
+    @Transactional(readOnly = true)
+    public long exportRentals(OutputStream outputStream, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        long rows = 0;
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try (Stream<RentalDTO> rentals = rentalRepository.streamAllAsDto()) {
+            for (RentalDTO rental : (Iterable<RentalDTO>) rentals::iterator) {
+                writer.write(format == Format.CSV ? toCsv(rental) : objectMapper.writeValueAsString(rental));
+                writer.write('\n');
+                rows++;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static String toCsv(RentalDTO rental) {
+        return String.join(",",
+                valueOf(rental.getId()),
+                valueOf(rental.getUserId()),
+                escape(rental.getUsername()),
+                valueOf(rental.getVideoId()),
+                escape(rental.getVideoTitle()),
+                valueOf(rental.getRentalDate()),
+                valueOf(rental.getReturnDate()),
+                valueOf(rental.getTotalCost()));
+    }
+
+    private static String valueOf(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
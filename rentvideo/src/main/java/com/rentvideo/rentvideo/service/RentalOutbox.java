@@ -0,0 +1,52 @@
+package com.rentvideo.rentvideo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentvideo.rentvideo.event.RentalEvent;
+import com.rentvideo.rentvideo.model.OutboxEvent;
+import com.rentvideo.rentvideo.repository.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Writes rental events to the outbox table; only ever joins the caller's transaction, so the event commits or rolls back with the rental
+@Component
+public class RentalOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final OutboxPublisher outboxPublisher;
+
+    public RentalOutbox(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                        OutboxPublisher outboxPublisher) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.outboxPublisher = outboxPublisher;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(RentalEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventType(event.type().name());
+        outboxEvent.setAggregateId(event.rentalId());
+        outboxEvent.setPayload(toJson(event));
+        outboxEvent.setCreatedAt(event.occurredAt());
+        outboxEventRepository.save(outboxEvent);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxPublisher.signal();
+            }
+        });
+    }
+
+    private String toJson(RentalEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize rental event for rental " + event.rentalId(), e);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.rentvideo.rentvideo.service;
 
+import com.rentvideo.rentvideo.dto.BatchRentalResponse;
+import com.rentvideo.rentvideo.dto.RentalDTO;
+import com.rentvideo.rentvideo.event.RentalEvent;
 import com.rentvideo.rentvideo.model.Rental;
 import com.rentvideo.rentvideo.model.User;
 import com.rentvideo.rentvideo.model.Video;
@@ -8,11 +11,19 @@ import com.rentvideo.rentvideo.repository.UserRepository;
 import com.rentvideo.rentvideo.repository.VideoRepository;
 import com.rentvideo.rentvideo.exception.ResourceNotFoundException;
 import com.rentvideo.rentvideo.exception.VideoRentalException;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class RentalService {
@@ -20,80 +31,107 @@ public class RentalService {
     private final RentalRepository rentalRepository;
     private final UserRepository userRepository;
     private final VideoRepository videoRepository;
-
-    public RentalService(RentalRepository rentalRepository, UserRepository userRepository, VideoRepository videoRepository) {
+    private final VideoInventory videoInventory;
+    private final VideoPopularity videoPopularity;
+    private final RentalOutbox rentalOutbox;
+    private final UserRentalSummaryService userRentalSummaryService;
+
+    public RentalService(RentalRepository rentalRepository, UserRepository userRepository, VideoRepository videoRepository,
+                         VideoInventory videoInventory, VideoPopularity videoPopularity, RentalOutbox rentalOutbox,
+                         UserRentalSummaryService userRentalSummaryService) {
         this.rentalRepository = rentalRepository;
         this.userRepository = userRepository;
         this.videoRepository = videoRepository;
+        this.videoInventory = videoInventory;
+        this.videoPopularity = videoPopularity;
+        this.rentalOutbox = rentalOutbox;
+        this.userRentalSummaryService = userRentalSummaryService;
     }
 
-    public List<Rental> getAllRentals() {
-        return rentalRepository.findAll();
+    // Up to 'count' rentals with an id greater than 'after', in id order, as DTOs built by a single query
+    public List<RentalDTO> getRentalsAfter(long after, int count) {
+        return rentalRepository.findDtosAfter(after, Limit.of(count));
     }
 
     public Rental getRentalById(Long id) {
-        return rentalRepository.findById(id)
+        // User and video come with the rental: the return endpoint's security check and its response read both
+        return rentalRepository.findWithUserAndVideoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Rental not found with id: " + id));
     }
 
-    public List<Rental> getRentalsByUser(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        return rentalRepository.findByUser(user);
+    public List<RentalDTO> getRentalsByUser(Long userId) {
+        List<RentalDTO> rentals = rentalRepository.findDtosByUserId(userId);
+        // Only an empty result needs the extra lookup to tell "no rentals" from "no such user"
+        if (rentals.isEmpty() && !userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+        return rentals;
     }
 
     @Transactional
     public Rental rentVideo(Long userId, Long videoId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        User user = getUserById(userId);
+        // Loaded here rather than lazily by the caller: the response needs the title and open-in-view may be off
         Video video = videoRepository.findById(videoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Video not found with id: " + videoId));
 
-        if (video.getAvailableCopies() <= 0) {
-            throw new VideoRentalException("No available copies for video: " + video.getTitle());
-        }
-
         if (rentalRepository.existsByVideoAndUserAndReturnDateIsNull(video, user)) {
             throw new VideoRentalException("User already has an unreturned copy of this video: " + video.getTitle());
         }
+        return checkout(user, video);
+    }
 
-        video.setAvailableCopies(video.getAvailableCopies() - 1);
-        videoRepository.save(video); // Update video availability
-
-        Rental rental = new Rental();
-        rental.setUser(user);
-        rental.setVideo(video);
-        rental.setRentalDate(LocalDate.now());
-
-        return rentalRepository.save(rental);
+    /**
+     * Checks out several titles for one user in one transaction. The user, the videos and the user's
+     * open rentals among them are each loaded with a single query. In atomic mode the first failing
+     * item rolls the whole batch back; otherwise failing items are reported and the rest are kept.
+     */
+    @Transactional
+    public BatchRentalResponse rentVideos(Long userId, List<Long> videoIds, boolean atomic) {
+        User user = getUserById(userId);
+        Map<Long, Video> videos = videoRepository.findAllById(videoIds).stream()
+                .collect(Collectors.toMap(Video::getId, Function.identity()));
+        Set<Long> rentedOut = new HashSet<>(rentalRepository.findActiveVideoIds(user.getId(), videoIds));
+
+        BatchRentalResponse response = new BatchRentalResponse();
+        for (Long videoId : videoIds) {
+            try {
+                Video video = videos.get(videoId);
+                if (video == null) {
+                    throw new ResourceNotFoundException("Video not found with id: " + videoId);
+                }
+                if (!rentedOut.add(videoId)) {
+                    throw new VideoRentalException("User already has an unreturned copy of this video: " + video.getTitle());
+                }
+                response.getRentals().add(toDto(checkout(user, video)));
+            } catch (ResourceNotFoundException | VideoRentalException e) {
+                response.getErrors().add(new BatchRentalResponse.ItemError(videoId, e.getMessage()));
+                if (atomic) {
+                    return rollBack(response);
+                }
+            }
+        }
+        return response;
     }
 
+    // Return by the renting user: ownership is checked on the rental loaded for the return, not by a second lookup
     @Transactional
-    public Rental returnVideo(Long rentalId) {
+    public Rental returnVideo(Long rentalId, Long userId) {
         Rental rental = getRentalById(rentalId);
+        if (!rental.getUser().getId().equals(userId)) {
+            throw new AccessDeniedException("Rental " + rentalId + " belongs to another user");
+        }
 
         if (rental.getReturnDate() != null) {
             throw new VideoRentalException("Video already returned for rental ID: " + rentalId);
         }
 
-        rental.setReturnDate(LocalDate.now());
-
-        // Calculate total cost (simple calculation: days rented * rental price)
-        long daysRented = java.time.temporal.ChronoUnit.DAYS.between(rental.getRentalDate(), rental.getReturnDate());
-        if (daysRented == 0) daysRented = 1; // Minimum 1 day rental
-        rental.setTotalCost(daysRented * rental.getVideo().getRentalPrice());
-
-        Video video = rental.getVideo();
-        video.setAvailableCopies(video.getAvailableCopies() + 1);
-        videoRepository.save(video); // Update video availability
-
-        return rentalRepository.save(rental);
+        return checkIn(rental);
     }
 
     @Transactional
     public Rental returnVideoByUserIdAndVideoId(Long userId, Long videoId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        User user = getUserById(userId);
         Video video = videoRepository.findById(videoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Video not found with id: " + videoId));
 
@@ -104,6 +142,59 @@ public class RentalService {
             throw new VideoRentalException("Video already returned for user " + user.getUsername() + " and video " + video.getTitle());
         }
 
+        return checkIn(rental);
+    }
+
+    // Batch counterpart of returnVideoByUserIdAndVideoId, with the same atomic / per-item semantics as rentVideos
+    @Transactional
+    public BatchRentalResponse returnVideos(Long userId, List<Long> videoIds, boolean atomic) {
+        User user = getUserById(userId);
+        Map<Long, Rental> openRentals = rentalRepository.findActiveByUserIdAndVideoIds(user.getId(), videoIds).stream()
+                .collect(Collectors.toMap(rental -> rental.getVideo().getId(), Function.identity(), (a, b) -> a));
+
+        BatchRentalResponse response = new BatchRentalResponse();
+        for (Long videoId : videoIds) {
+            Rental rental = openRentals.remove(videoId); // Removed so a repeated id is not returned twice
+            if (rental == null) {
+                response.getErrors().add(new BatchRentalResponse.ItemError(videoId,
+                        "No active rental found for user " + user.getUsername() + " and video id " + videoId));
+                if (atomic) {
+                    return rollBack(response);
+                }
+                continue;
+            }
+            response.getRentals().add(toDto(checkIn(rental)));
+        }
+        return response;
+    }
+
+    // Reserves a copy and records the rental; callers have already ruled out an unreturned copy
+    private Rental checkout(User user, Video video) {
+        Long videoId = video.getId();
+        // Sold-out titles are turned away by the in-memory counter without touching the database
+        if (!videoInventory.tryReserve(videoId)) {
+            throw noAvailableCopies(videoId);
+        }
+        // Single conditional UPDATE: no lost updates even if several rentals of this title commit concurrently
+        if (videoRepository.decrementAvailableCopies(videoId) == 0) {
+            videoInventory.invalidate(videoId);
+            throw noAvailableCopies(videoId);
+        }
+
+        Rental rental = new Rental();
+        rental.setUser(user);
+        rental.setVideo(video);
+        rental.setRentalDate(LocalDate.now());
+
+        videoPopularity.recordRental(videoId);
+        Rental savedRental = rentalRepository.save(rental);
+        rentalOutbox.record(RentalEvent.rented(savedRental)); // Commits or rolls back with the rental
+        userRentalSummaryService.recordRental(user.getId(), savedRental.getRentalDate());
+        return savedRental;
+    }
+
+    // Closes the rental and puts the copy back
+    private Rental checkIn(Rental rental) {
         rental.setReturnDate(LocalDate.now());
 
         // Calculate total cost (simple calculation: days rented * rental price)
@@ -111,9 +202,38 @@ public class RentalService {
         if (daysRented == 0) daysRented = 1; // Minimum 1 day rental
         rental.setTotalCost(daysRented * rental.getVideo().getRentalPrice());
 
-        video.setAvailableCopies(video.getAvailableCopies() + 1);
-        videoRepository.save(video); // Update video availability
+        Long videoId = rental.getVideo().getId();
+        videoRepository.incrementAvailableCopies(videoId); // Update video availability
+        videoInventory.returnCopy(videoId);
+
+        Rental savedRental = rentalRepository.save(rental);
+        rentalOutbox.record(RentalEvent.returned(savedRental));
+        userRentalSummaryService.recordReturn(savedRental.getUser().getId(), savedRental.getTotalCost());
+        return savedRental;
+    }
+
+    private User getUserById(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    }
 
-        return rentalRepository.save(rental);
+    // Atomic batch failed: undo every item (inventory reservations are released on rollback) and report only the errors
+    private static BatchRentalResponse rollBack(BatchRentalResponse response) {
+        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        response.getRentals().clear();
+        return response;
+    }
+
+    private static RentalDTO toDto(Rental rental) {
+        return new RentalDTO(rental.getId(), rental.getUser().getId(), rental.getUser().getUsername(),
+                rental.getVideo().getId(), rental.getVideo().getTitle(), rental.getRentalDate(),
+                rental.getReturnDate(), rental.getTotalCost());
+    }
+
+    // Distinguishes a missing video from a sold-out one for the error response
+    private VideoRentalException noAvailableCopies(Long videoId) {
+        Video video = videoRepository.findById(videoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Video not found with id: " + videoId));
+        return new VideoRentalException("No available copies for video: " + video.getTitle());
     }
 }
\ No newline at end of file
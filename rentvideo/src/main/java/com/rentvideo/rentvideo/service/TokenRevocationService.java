@@ -0,0 +1,126 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.model.RevokedToken;
+import com.rentvideo.rentvideo.model.User;
+import com.rentvideo.rentvideo.repository.RevokedTokenRepository;
+import com.rentvideo.rentvideo.security.JwtUtil;
+import com.rentvideo.rentvideo.security.TokenRevocationChecker;
+import com.rentvideo.rentvideo.util.BloomFilter;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Revokes access tokens before they expire, without a user query per request. A token is revoked by its
+ * id (jti claim, e.g. on logout) or by its user's token version (uid and ver claims): bumping a user's
+ * version on a role change or deletion ends every token issued before it. Revocations are rows in the
+ * revoked_tokens table, kept only until the tokens they cover would have expired anyway. All live keys
+ * are held in a Bloom filter, so the usual not-revoked answer is a few in-memory hash probes; only a
+ * filter hit (a revoked token, or a false positive at about the configured rate) is confirmed against
+ * the table. The filter is rebuilt periodically, which drops expired keys and picks up revocations
+ * made by other instances.
+ */
+@Service
+public class TokenRevocationService implements TokenRevocationChecker {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${jwt.expiration}")
+    private long expiration;
+    @Value("${jwt.revocation.expected-entries:100000}")
+    private int expectedEntries;
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Null until the first load; until then every check goes to the table
+    private volatile BloomFilter filter;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    @Override
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        if (tokenId != null && isRevoked(tokenId)) {
+            return true;
+        }
+        Long userId = claims.get(JwtUtil.USER_ID_CLAIM, Long.class);
+        Integer version = claims.get(JwtUtil.TOKEN_VERSION_CLAIM, Integer.class);
+        return userId != null && version != null && isRevoked(userKey(userId, version));
+    }
+
+    // Revokes one access token until it expires, e.g. on logout
+    @Transactional
+    public void revokeToken(String tokenId, Date expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt.toInstant()));
+        addAfterCommit(tokenId);
+    }
+
+    /**
+     * Revokes every access token issued to the user so far and moves the user to the next token version.
+     * Must run inside the transaction that changes the user, so that both commit or neither does.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revokeUserTokens(User user) {
+        String key = userKey(user.getId(), user.getTokenVersion());
+        // Tokens of this version were issued at most one access token lifetime from now
+        revokedTokenRepository.save(new RevokedToken(key, Instant.now().plusMillis(expiration)));
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        addAfterCommit(key);
+    }
+
+    /**
+     * Purges expired rows and rebuilds the filter from the live ones. Synchronized with add, so a key
+     * committed while the table is being read cannot be lost by adding it to the filter being replaced.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.reload-interval-ms:30000}")
+    public synchronized void reload() {
+        Instant now = Instant.now();
+        revokedTokenRepository.deleteExpiredBefore(now);
+        List<String> keys = revokedTokenRepository.findKeysExpiringAfter(now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, keys.size() * 2), falsePositiveRate);
+        keys.forEach(rebuilt::put);
+        filter = rebuilt;
+        log.debug("Loaded {} revoked token keys", keys.size());
+    }
+
+    private boolean isRevoked(String key) {
+        BloomFilter current = filter;
+        return (current == null || current.mightContain(key)) && revokedTokenRepository.existsById(key);
+    }
+
+    private synchronized void add(String key) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(key);
+        }
+    }
+
+    // The filter may only claim keys that are in the table; on rollback there is nothing to add
+    private void addAfterCommit(String key) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(key);
+            }
+        });
+    }
+
+    private static String userKey(Long userId, int version) {
+        return "u:" + userId + ":" + version;
+    }
+}
@@ -0,0 +1,83 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.dto.UserRentalSummaryDTO;
+import com.rentvideo.rentvideo.exception.ResourceNotFoundException;
+import com.rentvideo.rentvideo.model.UserRentalSummary;
+import com.rentvideo.rentvideo.repository.RentalRepository;
+import com.rentvideo.rentvideo.repository.UserRentalSummaryRepository;
+import com.rentvideo.rentvideo.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.function.IntSupplier;
+
+/**
+ * Maintains the user_rental_summaries read model. Rentals and returns adjust a user's row with one
+ * relative UPDATE inside the rental's own transaction. A missing row (a user from before this table
+ * existed, or a first rental) is backfilled once from aggregates over that user's rentals, under a
+ * lock on the user row so concurrent backfills and updates cannot double count.
+ */
+@Service
+public class UserRentalSummaryService {
+
+    private final UserRentalSummaryRepository summaryRepository;
+    private final RentalRepository rentalRepository;
+    private final UserRepository userRepository;
+
+    public UserRentalSummaryService(UserRentalSummaryRepository summaryRepository, RentalRepository rentalRepository,
+                                    UserRepository userRepository) {
+        this.summaryRepository = summaryRepository;
+        this.rentalRepository = rentalRepository;
+        this.userRepository = userRepository;
+    }
+
+    // Call after the new rental has been saved
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRental(Long userId, LocalDate rentalDate) {
+        apply(userId, () -> summaryRepository.recordRental(userId, rentalDate));
+    }
+
+    // Call after the rental's return date and cost have been set
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordReturn(Long userId, double cost) {
+        apply(userId, () -> summaryRepository.recordReturn(userId, cost));
+    }
+
+    @Transactional
+    public UserRentalSummaryDTO getSummary(Long userId) {
+        UserRentalSummary summary = summaryRepository.findById(userId).orElseGet(() -> {
+            lockUser(userId);
+            return summaryRepository.findById(userId).orElseGet(() -> backfill(userId));
+        });
+        return new UserRentalSummaryDTO(userId, summary.getActiveCount(), summary.getLifetimeRentals(),
+                summary.getLifetimeSpend(), summary.getLastRentalDate(), rentalRepository.findActiveDtosByUserId(userId));
+    }
+
+    private void apply(Long userId, IntSupplier update) {
+        if (update.getAsInt() > 0) {
+            return;
+        }
+        lockUser(userId);
+        // Another transaction may have created the row while we waited for the lock
+        if (update.getAsInt() == 0) {
+            backfill(userId); // The aggregates already include this transaction's change
+        }
+    }
+
+    private UserRentalSummary backfill(Long userId) {
+        RentalRepository.RentalTotals totals = rentalRepository.summarizeByUserId(userId);
+        UserRentalSummary summary = new UserRentalSummary(userId,
+                totals.getActiveCount() == null ? 0 : totals.getActiveCount().intValue(),
+                totals.getLifetimeRentals() == null ? 0 : totals.getLifetimeRentals(),
+                totals.getLifetimeSpend() == null ? 0 : totals.getLifetimeSpend(),
+                totals.getLastRentalDate());
+        return summaryRepository.save(summary);
+    }
+
+    private void lockUser(Long userId) {
+        userRepository.findLockedById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    }
+}
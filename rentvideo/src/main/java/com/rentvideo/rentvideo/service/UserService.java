@@ -4,6 +4,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -22,15 +23,19 @@ public class UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
 
-    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder,
+                       TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    // Up to 'count' users with an id greater than 'after', in id order
+    public List<User> getUsersAfter(long after, int count) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(count));
     }
 
     public User getUserById(Long id) {
@@ -80,10 +85,10 @@ public class UserService {
 
     @Transactional
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found with id: " + id);
-        }
-        userRepository.deleteById(id);
+        User user = getUserById(id);
+        // Tokens carry the user's roles, so they would otherwise keep working until they expire
+        tokenRevocationService.revokeUserTokens(user);
+        userRepository.delete(user);
     }
 
     @Transactional
@@ -92,6 +97,7 @@ public class UserService {
         Role role = roleRepository.findByName(roleName)
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + roleName));
         user.getRoles().add(role);
+        tokenRevocationService.revokeUserTokens(user); // Tokens issued before carry the old roles
         return userRepository.save(user);
     }
 
@@ -101,6 +107,7 @@ public class UserService {
         Role roleToRemove = roleRepository.findByName(roleName)
                 .orElseThrow(() -> new ResourceNotFoundException("Role not found: " + roleName));
         user.getRoles().removeIf(role -> role.getName().equals(roleToRemove.getName()));
+        tokenRevocationService.revokeUserTokens(user); // Tokens issued before carry the old roles
         return userRepository.save(user);
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.event.VideoChangedEvent;
+import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.repository.VideoRepository;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Read-through cache of the video catalog, ordered by id. The catalog only changes through
+ * VideoService writes, which are applied here entry by entry after commit, so browse traffic
+ * never has to go back to the database. Copy counts change on every rental and are deliberately
+ * not cached: they are overlaid from VideoInventory on each read.
+ */
+@Component
+public class VideoCatalogCache {
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final VideoRepository videoRepository;
+    private final VideoInventory videoInventory;
+
+    private final ConcurrentSkipListMap<Long, Video> videos = new ConcurrentSkipListMap<>();
+    private volatile boolean loaded;
+
+    public VideoCatalogCache(VideoRepository videoRepository, VideoInventory videoInventory) {
+        this.videoRepository = videoRepository;
+        this.videoInventory = videoInventory;
+    }
+
+    public List<Video> findAll() {
+        ensureLoaded();
+        return videos.values().stream().map(this::withCurrentAvailability).toList();
+    }
+
+    // Keyset page straight off the sorted map: the first 'count' videos with an id greater than 'after'
+    public List<Video> findPage(long after, int count) {
+        ensureLoaded();
+        return videos.tailMap(after, false).values().stream()
+                .limit(count)
+                .map(this::withCurrentAvailability)
+                .toList();
+    }
+
+    public Optional<Video> findById(Long id) {
+        ensureLoaded();
+        return Optional.ofNullable(videos.get(id)).map(this::withCurrentAvailability);
+    }
+
+    // First among the VideoChangedEvent listeners: indexes rebuilt from findAll() (VideoSuggester) must see this change
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        if (!loaded && !awaitLoad()) {
+            return; // No load has started: the first read loads everything, including this change
+        }
+        if (event.type() == VideoChangedEvent.Type.DELETED) {
+            videos.remove(event.videoId());
+        } else {
+            videos.put(event.videoId(), copyOf(event.video()));
+        }
+    }
+
+    /**
+     * Waits for a load in progress, which may already have scanned past the changed video, and returns
+     * whether the cache is now loaded. Shares the loader's monitor, so a change is never lost between the two.
+     */
+    private synchronized boolean awaitLoad() {
+        return loaded;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                // Warm up in keyset chunks so a large catalog is never materialized as one result set
+                long after = 0;
+                List<Video> chunk;
+                do {
+                    chunk = videoRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(LOAD_CHUNK_SIZE));
+                    chunk.forEach(video -> videos.put(video.getId(), copyOf(video)));
+                    if (!chunk.isEmpty()) {
+                        after = chunk.get(chunk.size() - 1).getId();
+                    }
+                } while (chunk.size() == LOAD_CHUNK_SIZE);
+                loaded = true;
+            }
+        }
+    }
+
+    // Callers get their own instance, so nothing they do can leak back into the cache
+    private Video withCurrentAvailability(Video cached) {
+        Video video = copyOf(cached);
+        video.setAvailableCopies(videoInventory.getAvailableCopies(cached.getId()));
+        return video;
+    }
+
+    private static Video copyOf(Video video) {
+        return new Video(video.getId(), video.getTitle(), video.getDirector(), video.getGenre(),
+                video.getReleaseYear(), video.getAvailableCopies(), video.getRentalPrice());
+    }
+}
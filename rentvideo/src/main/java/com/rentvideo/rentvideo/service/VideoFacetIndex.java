@@ -0,0 +1,300 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.event.VideoChangedEvent;
+import com.rentvideo.rentvideo.model.Video;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index for the browse page. Every video occupies a dense slot, and each genre, release
+ * year, decade and director keeps a BitSet of the slots it covers, so a combined filter is a handful
+ * of AND/OR operations and each facet count is one AND plus a cardinality. Like the search index it
+ * is built from the catalog cache on first use and updated per video from VideoChangedEvent.
+ * Copy counts change with every rental and are read from VideoInventory at query time instead.
+ */
+@Component
+public class VideoFacetIndex {
+
+    // Any null / empty field means "no constraint"
+    public record Filter(Set<String> genres, Integer minYear, Integer maxYear, String director,
+                         Double minPrice, Double maxPrice, boolean inStock) {
+    }
+
+    // One page of matching ids in id order, plus the totals for the whole filter
+    public record Result(List<Long> videoIds, int total, Map<String, Integer> genreCounts,
+                         Map<Integer, Integer> decadeCounts) {
+    }
+
+    private final VideoCatalogCache videoCatalogCache;
+    private final VideoInventory videoInventory;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Just the indexed fields, so later changes to the event's entity cannot desync the bitmaps
+    private record Indexed(Long id, String genre, Integer releaseYear, String director) {
+    }
+
+    // slot -> indexed video (null once freed; freed slots are reused by the next insert)
+    private final List<Indexed> slots = new ArrayList<>();
+    private final Map<Long, Integer> slotOf = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private double[] prices = new double[64];
+
+    private final Map<String, BitSet> byGenre = new HashMap<>(); // Keys are lower-cased
+    private final Map<String, String> genreNames = new HashMap<>(); // Lower-cased -> name as first entered
+    private final TreeMap<Integer, BitSet> byYear = new TreeMap<>();
+    private final TreeMap<Integer, BitSet> byDecade = new TreeMap<>();
+    private final Map<String, BitSet> byDirector = new HashMap<>(); // Keys are lower-cased
+    private volatile boolean built;
+
+    public VideoFacetIndex(VideoCatalogCache videoCatalogCache, VideoInventory videoInventory) {
+        this.videoCatalogCache = videoCatalogCache;
+        this.videoInventory = videoInventory;
+    }
+
+    public Result browse(Filter filter, long after, int count) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            // Constraints shared by the result and by both facets
+            BitSet common = (BitSet) live.clone();
+            if (filter.director() != null && !filter.director().isBlank()) {
+                common.and(directorsContaining(filter.director().trim().toLowerCase(Locale.ROOT)));
+            }
+            if (filter.minPrice() != null || filter.maxPrice() != null) {
+                double min = filter.minPrice() != null ? filter.minPrice() : Double.NEGATIVE_INFINITY;
+                double max = filter.maxPrice() != null ? filter.maxPrice() : Double.POSITIVE_INFINITY;
+                for (int slot = common.nextSetBit(0); slot >= 0; slot = common.nextSetBit(slot + 1)) {
+                    if (prices[slot] < min || prices[slot] > max) {
+                        common.clear(slot);
+                    }
+                }
+            }
+            if (filter.inStock()) {
+                for (int slot = common.nextSetBit(0); slot >= 0; slot = common.nextSetBit(slot + 1)) {
+                    if (videoInventory.getAvailableCopies(slots.get(slot).id()) <= 0) {
+                        common.clear(slot);
+                    }
+                }
+            }
+            BitSet genres = genreSlots(filter.genres());
+            BitSet years = yearSlots(filter.minYear(), filter.maxYear());
+
+            // Each facet is counted without its own constraint, so the client can widen a selection
+            BitSet matched = intersect(intersect(common, genres), years);
+            Map<String, Integer> genreCounts = genreCounts(intersect(common, years));
+            Map<Integer, Integer> decadeCounts = decadeCounts(intersect(common, genres));
+            return new Result(pageIds(matched, after, count), matched.cardinality(), genreCounts, decadeCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                return; // The first browse builds from the catalog, which already includes this change
+            }
+            removeVideo(event.videoId());
+            if (event.type() != VideoChangedEvent.Type.DELETED) {
+                addVideo(event.video());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!built) {
+                videoCatalogCache.findAll().forEach(this::addVideo);
+                built = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addVideo(Video source) {
+        Indexed video = new Indexed(source.getId(), source.getGenre(), source.getReleaseYear(), source.getDirector());
+        int slot = live.nextClearBit(0);
+        if (slot == slots.size()) {
+            slots.add(video);
+        } else {
+            slots.set(slot, video);
+        }
+        if (slot >= prices.length) {
+            prices = Arrays.copyOf(prices, prices.length * 2);
+        }
+        prices[slot] = source.getRentalPrice() != null ? source.getRentalPrice() : 0;
+        slotOf.put(video.id(), slot);
+        live.set(slot);
+
+        String genre = key(video.genre());
+        byGenre.computeIfAbsent(genre, g -> new BitSet()).set(slot);
+        genreNames.putIfAbsent(genre, video.genre());
+        if (video.releaseYear() != null) {
+            byYear.computeIfAbsent(video.releaseYear(), y -> new BitSet()).set(slot);
+            byDecade.computeIfAbsent(decadeOf(video.releaseYear()), d -> new BitSet()).set(slot);
+        }
+        byDirector.computeIfAbsent(key(video.director()), d -> new BitSet()).set(slot);
+    }
+
+    private void removeVideo(Long videoId) {
+        Integer slot = slotOf.remove(videoId);
+        if (slot == null) {
+            return;
+        }
+        Indexed video = slots.set(slot, null);
+        live.clear(slot);
+        String genre = key(video.genre());
+        if (clear(byGenre, genre, slot)) {
+            genreNames.remove(genre);
+        }
+        if (video.releaseYear() != null) {
+            clear(byYear, video.releaseYear(), slot);
+            clear(byDecade, decadeOf(video.releaseYear()), slot);
+        }
+        clear(byDirector, key(video.director()), slot);
+    }
+
+    // Clears the slot from one posting bitmap and drops the bitmap once empty; true if it was dropped
+    private static <K> boolean clear(Map<K, BitSet> postings, K key, int slot) {
+        BitSet bits = postings.get(key);
+        if (bits == null) {
+            return false;
+        }
+        bits.clear(slot);
+        if (bits.isEmpty()) {
+            postings.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    // Same "contains, ignoring case" semantics as findByDirectorContainingIgnoreCase, over distinct names only
+    private BitSet directorsContaining(String needle) {
+        BitSet slotsFound = new BitSet();
+        byDirector.forEach((director, bits) -> {
+            if (director.contains(needle)) {
+                slotsFound.or(bits);
+            }
+        });
+        return slotsFound;
+    }
+
+    private BitSet genreSlots(Set<String> genres) {
+        if (genres == null || genres.isEmpty()) {
+            return null;
+        }
+        BitSet slotsFound = new BitSet();
+        for (String genre : genres) {
+            BitSet bits = byGenre.get(key(genre));
+            if (bits != null) {
+                slotsFound.or(bits);
+            }
+        }
+        return slotsFound;
+    }
+
+    private BitSet yearSlots(Integer minYear, Integer maxYear) {
+        if (minYear == null && maxYear == null) {
+            return null;
+        }
+        int from = minYear != null ? minYear : Integer.MIN_VALUE;
+        int to = maxYear != null ? maxYear : Integer.MAX_VALUE;
+        BitSet slotsFound = new BitSet();
+        if (from <= to) {
+            union(slotsFound, byYear.subMap(from, true, to, true).values());
+        }
+        return slotsFound;
+    }
+
+    private Map<String, Integer> genreCounts(BitSet base) {
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+        byGenre.forEach((genre, bits) -> {
+            int count = intersectionSize(base, bits);
+            if (count > 0) {
+                counts.add(Map.entry(genreNames.get(genre), count));
+            }
+        });
+        counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())));
+        Map<String, Integer> ordered = new LinkedHashMap<>();
+        counts.forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+        return ordered;
+    }
+
+    private Map<Integer, Integer> decadeCounts(BitSet base) {
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        byDecade.forEach((decade, bits) -> {
+            int count = intersectionSize(base, bits);
+            if (count > 0) {
+                counts.put(decade, count);
+            }
+        });
+        return counts;
+    }
+
+    private List<Long> pageIds(BitSet matched, long after, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int slot = matched.nextSetBit(0); slot >= 0; slot = matched.nextSetBit(slot + 1)) {
+            Long id = slots.get(slot).id();
+            if (id > after) {
+                ids.add(id);
+            }
+        }
+        // Reused slots are not in id order, so the keyset page is cut after sorting
+        ids.sort(Comparator.naturalOrder());
+        return ids.size() > count ? new ArrayList<>(ids.subList(0, count)) : ids;
+    }
+
+    // A null bitmap means "unconstrained"
+    private static BitSet intersect(BitSet base, BitSet constraint) {
+        if (constraint == null) {
+            return base;
+        }
+        BitSet result = (BitSet) base.clone();
+        result.and(constraint);
+        return result;
+    }
+
+    private static int intersectionSize(BitSet a, BitSet b) {
+        BitSet result = (BitSet) b.clone();
+        result.and(a);
+        return result.cardinality();
+    }
+
+    private static void union(BitSet target, Collection<BitSet> bitmaps) {
+        bitmaps.forEach(target::or);
+    }
+
+    private static int decadeOf(int year) {
+        return Math.floorDiv(year, 10) * 10;
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,278 @@
+package com.rentvideo.rentvideo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentvideo.rentvideo.dto.VideoDTO;
+import com.rentvideo.rentvideo.dto.VideoImportReport;
+import com.rentvideo.rentvideo.event.VideoChangedEvent;
+import com.rentvideo.rentvideo.model.Video;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a distributor catalog (CSV or NDJSON) into the videos table. Rows are parsed and
+ * validated one at a time and inserted in batches of videos.import.batch-size, each batch in its
+ * own transaction with one flush, so memory stays flat for any file size and Hibernate can send
+ * the INSERTs as JDBC batches (Video ids come from a pooled sequence for that reason).
+ */
+@Service
+public class VideoImportService {
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> CSV_COLUMNS =
+            List.of("title", "director", "genre", "releaseYear", "availableCopies", "rentalPrice");
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final VideoInventory videoInventory;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${videos.import.batch-size:500}")
+    private int batchSize;
+
+    private record Row(long line, VideoDTO video) {
+    }
+
+    public VideoImportService(EntityManager entityManager, TransactionTemplate transactionTemplate, Validator validator,
+                              ObjectMapper objectMapper, VideoInventory videoInventory,
+                              ApplicationEventPublisher eventPublisher) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.videoInventory = videoInventory;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public VideoImportReport importVideos(InputStream input, Format format) throws IOException {
+        VideoImportReport report = new VideoImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<Row> batch = new ArrayList<>(batchSize);
+        if (format == Format.CSV) {
+            importCsv(reader, report, batch);
+        } else {
+            importNdjson(reader, report, batch);
+        }
+        flush(batch, report);
+        return report;
+    }
+
+    private void importNdjson(BufferedReader reader, VideoImportReport report, List<Row> batch) throws IOException {
+        long line = 0;
+        String json;
+        while ((json = reader.readLine()) != null) {
+            line++;
+            if (json.isBlank()) {
+                continue;
+            }
+            report.setRowsRead(report.getRowsRead() + 1);
+            try {
+                accept(new Row(line, objectMapper.readValue(json, VideoDTO.class)), report, batch);
+            } catch (JsonProcessingException e) {
+                reject(report, line, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void importCsv(BufferedReader reader, VideoImportReport report, List<Row> batch) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        // Columns are matched by name, in any order and case
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = CSV_COLUMNS.stream()
+                .filter(column -> !columns.containsKey(column.toLowerCase(Locale.ROOT)))
+                .toList();
+        if (!missing.isEmpty()) {
+            reject(report, 1, "Missing CSV columns: " + String.join(", ", missing));
+            return;
+        }
+
+        List<String> fields;
+        for (long line = csv.nextLine(); (fields = csv.next()) != null; line = csv.nextLine()) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            report.setRowsRead(report.getRowsRead() + 1);
+            try {
+                VideoDTO video = new VideoDTO();
+                video.setTitle(field(fields, columns, "title"));
+                video.setDirector(field(fields, columns, "director"));
+                video.setGenre(field(fields, columns, "genre"));
+                video.setReleaseYear(integerField(fields, columns, "releaseYear"));
+                video.setAvailableCopies(integerField(fields, columns, "availableCopies"));
+                String price = field(fields, columns, "rentalPrice");
+                video.setRentalPrice(price == null ? null : Double.valueOf(price));
+                accept(new Row(line, video), report, batch);
+            } catch (NumberFormatException e) {
+                reject(report, line, "Invalid number: " + e.getMessage());
+            }
+        }
+    }
+
+    // Validates with the same constraints as POST /api/videos; valid rows are queued for the next batch
+    private void accept(Row row, VideoImportReport report, List<Row> batch) {
+        Set<ConstraintViolation<VideoDTO>> violations = validator.validate(row.video());
+        if (!violations.isEmpty()) {
+            reject(report, row.line(), violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return;
+        }
+        batch.add(row);
+        if (batch.size() >= batchSize) {
+            flush(batch, report);
+        }
+    }
+
+    private void flush(List<Row> batch, VideoImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            insert(batch);
+            report.setImported(report.getImported() + batch.size());
+        } catch (RuntimeException batchFailure) {
+            // One bad row rolls back its whole batch; retry row by row so only that row is reported
+            for (Row row : batch) {
+                try {
+                    insert(List.of(row));
+                    report.setImported(report.getImported() + 1);
+                } catch (RuntimeException e) {
+                    reject(report, row.line(), "Insert failed: " + e.getMessage());
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private void insert(List<Row> rows) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Video> videos = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                VideoDTO dto = row.video();
+                Video video = new Video(null, dto.getTitle(), dto.getDirector(), dto.getGenre(),
+                        dto.getReleaseYear(), dto.getAvailableCopies(), dto.getRentalPrice());
+                entityManager.persist(video);
+                videos.add(video);
+            }
+            entityManager.flush(); // Sent as JDBC batches of hibernate.jdbc.batch_size
+            entityManager.clear();
+            for (Video video : videos) {
+                videoInventory.setAvailableCopies(video.getId(), video.getAvailableCopies());
+                eventPublisher.publishEvent(VideoChangedEvent.created(video));
+            }
+        });
+    }
+
+    private static void reject(VideoImportReport report, long line, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new VideoImportReport.RowError(line, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        int index = columns.get(name.toLowerCase(Locale.ROOT));
+        if (index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer integerField(List<String> fields, Map<String, Integer> columns, String name) {
+        String value = field(fields, columns, name);
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    // Minimal RFC 4180 reader: quoted fields may contain separators, doubled quotes and line breaks
+    private static final class CsvReader {
+
+        private final BufferedReader reader;
+        private long line = 1;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        // Line on which the next record starts
+        long nextLine() {
+            return line;
+        }
+
+        List<String> next() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.repository.VideoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory available-copy counters, one per video. Rentals reserve a copy with a CAS on the
+ * counter before touching the database, so requests for a sold-out title are turned away without
+ * a query and concurrent rentals of the same title do not pile up on the videos row. The row itself
+ * is kept authoritative by the conditional UPDATEs in VideoRepository.
+ * <p>
+ * Counters only see this instance's rentals and returns, so they drift when copies come back through
+ * another instance or a direct database edit. A counter at zero is therefore re-read from its row at
+ * most once per inventory.sold-out-recheck-ms before a rental is turned away, and all counters are
+ * reconciled with the table every inventory.reconcile-interval-ms.
+ */
+@Component
+public class VideoInventory {
+
+    private static final Logger log = LoggerFactory.getLogger(VideoInventory.class);
+
+    private final VideoRepository videoRepository;
+    private final long soldOutRecheckMillis;
+
+    private final Map<Long, Counter> available = new ConcurrentHashMap<>();
+
+    // Copies of one video, and when this counter last took its value from the row
+    private static final class Counter {
+        final AtomicInteger copies;
+        volatile long readAtMillis;
+
+        Counter(int copies) {
+            this.copies = new AtomicInteger(copies);
+            this.readAtMillis = System.currentTimeMillis();
+        }
+
+        void load(int copies) {
+            this.copies.set(copies);
+            this.readAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    public VideoInventory(VideoRepository videoRepository,
+                          @Value("${inventory.sold-out-recheck-ms:1000}") long soldOutRecheckMillis) {
+        this.videoRepository = videoRepository;
+        this.soldOutRecheckMillis = soldOutRecheckMillis;
+    }
+
+    // Load every counter from the database once the application (and DataLoader) has started, then periodically.
+    // Copies reserved by uncommitted rentals may be counted as available; the conditional UPDATE still rejects them.
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${inventory.reconcile-interval-ms:300000}", initialDelayString = "${inventory.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        videoRepository.findAllAvailability().forEach(row ->
+                available.computeIfAbsent(row.getId(), id -> new Counter(0)).load(row.getAvailableCopies()));
+        log.info("Reconciled inventory counters for {} videos", available.size());
+    }
+
+    // 0 for unknown videos, which are not cached
+    public int getAvailableCopies(Long videoId) {
+        Counter counter = counter(videoId);
+        return counter != null ? counter.copies.get() : 0;
+    }
+
+    /**
+     * Takes one copy if any is left. When called inside a transaction the copy is handed back
+     * automatically if that transaction rolls back.
+     */
+    public boolean tryReserve(Long videoId) {
+        Counter counter = counter(videoId);
+        if (counter == null) {
+            return false;
+        }
+        AtomicInteger copies = counter.copies;
+        int current;
+        do {
+            current = copies.get();
+            if (current <= 0 && !recheckSoldOut(videoId, counter, current)) {
+                return false;
+            }
+        } while (current <= 0 || !copies.compareAndSet(current, current - 1));
+
+        afterCompletion(committed -> {
+            if (!committed) {
+                copies.incrementAndGet();
+            }
+        });
+        return true;
+    }
+
+    // A copy came back; only becomes visible once the surrounding transaction commits
+    public void returnCopy(Long videoId) {
+        afterCompletion(committed -> {
+            if (committed) {
+                Counter counter = counter(videoId);
+                if (counter != null) {
+                    counter.copies.incrementAndGet();
+                }
+            }
+        });
+    }
+
+    // Admin writes set the copy count directly
+    public void setAvailableCopies(Long videoId, int copies) {
+        afterCompletion(committed -> {
+            if (committed) {
+                available.computeIfAbsent(videoId, id -> new Counter(0)).load(copies);
+            }
+        });
+    }
+
+    public void remove(Long videoId) {
+        afterCompletion(committed -> {
+            if (committed) {
+                available.remove(videoId);
+            }
+        });
+    }
+
+    // The database disagreed with the counter (e.g. a copy count changed outside this service); reload it on next use
+    public void invalidate(Long videoId) {
+        available.remove(videoId);
+    }
+
+    /**
+     * A counter at zero may be stale. Re-reads the row if it was last read more than the recheck interval ago
+     * (one caller does the read, the others see the refreshed timestamp) and returns whether the caller should
+     * try to reserve again.
+     */
+    private boolean recheckSoldOut(Long videoId, Counter counter, int seen) {
+        long now = System.currentTimeMillis();
+        long readAt = counter.readAtMillis;
+        if (now - readAt < soldOutRecheckMillis) {
+            return false;
+        }
+        counter.readAtMillis = now;
+        Integer copies = videoRepository.findAvailableCopiesById(videoId).orElse(null);
+        if (copies == null) {
+            available.remove(videoId, counter);
+            return false;
+        }
+        // Only if no rental or return moved the counter meanwhile
+        return copies > 0 && counter.copies.compareAndSet(seen, copies);
+    }
+
+    // Null for a video that does not exist; nothing is cached for it
+    private Counter counter(Long videoId) {
+        Counter counter = available.get(videoId);
+        if (counter != null) {
+            return counter;
+        }
+        // Unknown video (e.g. created by another path): read it once, outside the map's lock
+        Integer copies = videoRepository.findAvailableCopiesById(videoId).orElse(null);
+        if (copies == null) {
+            return null;
+        }
+        Counter loaded = new Counter(copies);
+        Counter existing = available.putIfAbsent(videoId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private interface CompletionCallback {
+        void completed(boolean committed);
+    }
+
+    private static void afterCompletion(CompletionCallback callback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            callback.completed(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                callback.completed(status == STATUS_COMMITTED);
+            }
+        });
+    }
+}
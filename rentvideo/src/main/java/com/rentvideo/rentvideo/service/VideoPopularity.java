@@ -0,0 +1,69 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.repository.RentalRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lifetime rental count per video, loaded once with a single GROUP BY and then kept current in memory
+@Component
+public class VideoPopularity {
+
+    private final RentalRepository rentalRepository;
+
+    private final Map<Long, LongAdder> rentals = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public VideoPopularity(RentalRepository rentalRepository) {
+        this.rentalRepository = rentalRepository;
+    }
+
+    public long getRentalCount(Long videoId) {
+        ensureLoaded();
+        LongAdder count = rentals.get(videoId);
+        return count == null ? 0 : count.sum();
+    }
+
+    // Counted once the surrounding transaction commits, so a rolled-back rental is never ranked
+    public void recordRental(Long videoId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(videoId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment(videoId);
+            }
+        });
+    }
+
+    private void increment(Long videoId) {
+        if (!loaded && !awaitLoad()) {
+            return; // No load has started: the initial GROUP BY will count this rental
+        }
+        rentals.computeIfAbsent(videoId, id -> new LongAdder()).increment();
+    }
+
+    // Waits for a GROUP BY in progress, which may have run before this rental committed; same monitor as the load
+    private synchronized boolean awaitLoad() {
+        return loaded;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                rentalRepository.countRentalsPerVideo().forEach(row ->
+                        rentals.computeIfAbsent(row.getVideoId(), id -> new LongAdder()).add(row.getRentals()));
+                loaded = true;
+            }
+        }
+    }
+}
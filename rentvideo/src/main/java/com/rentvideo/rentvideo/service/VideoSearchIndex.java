@@ -0,0 +1,180 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.event.VideoChangedEvent;
+import com.rentvideo.rentvideo.model.Video;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over title, director and genre. Every word of those fields is a term;
+ * terms are kept sorted so a query word matches both whole terms and term prefixes with a range
+ * lookup, which keeps search latency proportional to the number of matching terms rather than the
+ * size of the catalog. Built from the catalog cache on first use and kept current by VideoChangedEvent.
+ */
+@Component
+public class VideoSearchIndex {
+
+    // Field weights for ranking: a hit in the title counts more than one in the director or genre
+    private static final int TITLE = 1;
+    private static final int DIRECTOR = 2;
+    private static final int GENRE = 4;
+    private static final int TITLE_WEIGHT = 6;
+    private static final int DIRECTOR_WEIGHT = 3;
+    private static final int GENRE_WEIGHT = 2;
+    // Whole-word matches rank above prefix matches
+    private static final int EXACT_BONUS = 2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final VideoCatalogCache videoCatalogCache;
+
+    // term -> (videoId -> bitmask of the fields containing the term)
+    private final ConcurrentSkipListMap<String, Map<Long, Integer>> postings = new ConcurrentSkipListMap<>();
+    // videoId -> its terms, so an update or delete can remove exactly what was indexed
+    private final Map<Long, Set<String>> documentTerms = new ConcurrentHashMap<>();
+    private final Map<Long, String> titles = new ConcurrentHashMap<>();
+    private volatile boolean built;
+
+    public VideoSearchIndex(VideoCatalogCache videoCatalogCache) {
+        this.videoCatalogCache = videoCatalogCache;
+    }
+
+    /**
+     * Ids of the videos matching every word of the query (as a whole word or as a prefix)
+     * in any indexed field, best match first.
+     */
+    public List<Long> search(String query) {
+        ensureBuilt();
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> scores = null;
+        for (String word : words) {
+            Map<Long, Integer> wordScores = scoreWord(word);
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                // AND semantics: keep only videos that matched every previous word too
+                Map<Long, Integer> previous = scores;
+                scores = new HashMap<>();
+                for (Map.Entry<Long, Integer> entry : wordScores.entrySet()) {
+                    Integer score = previous.get(entry.getKey());
+                    if (score != null) {
+                        scores.put(entry.getKey(), score + entry.getValue());
+                    }
+                }
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                .thenComparing(entry -> titles.getOrDefault(entry.getKey(), ""))
+                .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())));
+        return ranked.stream().map(Map.Entry::getKey).toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        synchronized (this) {
+            if (!built) {
+                return; // The first search builds from the catalog, which already includes this change
+            }
+            removeDocument(event.videoId());
+            if (event.type() != VideoChangedEvent.Type.DELETED) {
+                addDocument(event.video());
+            }
+        }
+    }
+
+    private Map<Long, Integer> scoreWord(String word) {
+        Map<Long, Integer> scores = new HashMap<>();
+        // All terms starting with the word form one contiguous range of the sorted term map
+        for (Map.Entry<String, Map<Long, Integer>> term : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            int bonus = term.getKey().equals(word) ? EXACT_BONUS : 1;
+            term.getValue().forEach((videoId, fields) ->
+                    scores.merge(videoId, fieldWeight(fields) * bonus, Math::max));
+        }
+        return scores;
+    }
+
+    private static int fieldWeight(int fields) {
+        int weight = 0;
+        if ((fields & TITLE) != 0) weight += TITLE_WEIGHT;
+        if ((fields & DIRECTOR) != 0) weight += DIRECTOR_WEIGHT;
+        if ((fields & GENRE) != 0) weight += GENRE_WEIGHT;
+        return weight;
+    }
+
+    private void ensureBuilt() {
+        if (built) {
+            return;
+        }
+        synchronized (this) {
+            if (!built) {
+                videoCatalogCache.findAll().forEach(this::addDocument);
+                built = true;
+            }
+        }
+    }
+
+    private void addDocument(Video video) {
+        Map<String, Integer> fieldsByTerm = new HashMap<>();
+        tokenize(video.getTitle()).forEach(term -> fieldsByTerm.merge(term, TITLE, (a, b) -> a | b));
+        tokenize(video.getDirector()).forEach(term -> fieldsByTerm.merge(term, DIRECTOR, (a, b) -> a | b));
+        tokenize(video.getGenre()).forEach(term -> fieldsByTerm.merge(term, GENRE, (a, b) -> a | b));
+        fieldsByTerm.forEach((term, fields) ->
+                postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>()).put(video.getId(), fields));
+        documentTerms.put(video.getId(), fieldsByTerm.keySet());
+        titles.put(video.getId(), video.getTitle() == null ? "" : video.getTitle());
+    }
+
+    private void removeDocument(Long videoId) {
+        Set<String> terms = documentTerms.remove(videoId);
+        titles.remove(videoId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            postings.computeIfPresent(term, (t, videos) -> {
+                videos.remove(videoId);
+                return videos.isEmpty() ? null : videos;
+            });
+        }
+    }
+
+    // Lower-cased, accent-free, distinct words; "Amélie (2001)" -> [amelie, 2001]
+    static List<String> tokenize(String text) {
+        String folded = fold(text);
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        return new ArrayList<>(new LinkedHashSet<>(List.of(folded.split(" "))));
+    }
+
+    // Lower-cased, accent-free, words separated by single spaces: "Amélie  (2001)" -> "amelie 2001".
+    // Shared with VideoSuggester so typeahead and search agree on what a word is.
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -1,51 +1,98 @@
 package com.rentvideo.rentvideo.service;
 
+import com.rentvideo.rentvideo.event.VideoChangedEvent;
 import com.rentvideo.rentvideo.model.Video;
 import com.rentvideo.rentvideo.repository.VideoRepository;
 import com.rentvideo.rentvideo.exception.ResourceNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class VideoService {
 
     private final VideoRepository videoRepository;
+    private final VideoInventory videoInventory;
+    private final VideoCatalogCache videoCatalogCache;
+    private final VideoSearchIndex videoSearchIndex;
+    private final VideoFacetIndex videoFacetIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public VideoService(VideoRepository videoRepository) {
+    public VideoService(VideoRepository videoRepository, VideoInventory videoInventory,
+                        VideoCatalogCache videoCatalogCache, VideoSearchIndex videoSearchIndex,
+                        VideoFacetIndex videoFacetIndex, ApplicationEventPublisher eventPublisher) {
         this.videoRepository = videoRepository;
+        this.videoInventory = videoInventory;
+        this.videoCatalogCache = videoCatalogCache;
+        this.videoSearchIndex = videoSearchIndex;
+        this.videoFacetIndex = videoFacetIndex;
+        this.eventPublisher = eventPublisher;
     }
 
+    // Served from the catalog cache; copy counts are always current
     public List<Video> getAllVideos() {
-        return videoRepository.findAll();
+        return videoCatalogCache.findAll();
+    }
+
+    // Up to 'count' videos with an id greater than 'after', in id order
+    public List<Video> getVideosAfter(long after, int count) {
+        return videoCatalogCache.findPage(after, count);
     }
 
     public Video getVideoById(Long id) {
-        return videoRepository.findById(id)
+        return videoCatalogCache.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Video not found with id: " + id));
     }
 
+    // Live count from the inventory counters
+    public int getAvailableCopies(Long id) {
+        return videoInventory.getAvailableCopies(id);
+    }
+
+    // Ranked search over title, director and genre; every query word must match a word or word prefix
     public List<Video> searchVideos(String query) {
-        // Simple search that checks title, genre, and director
-        return videoRepository.findByTitleContainingIgnoreCase(query); // Can extend with more complex queries
+        return getVideosByIds(videoSearchIndex.search(query));
+    }
+
+    // Filtered page of ids plus genre/decade counts, resolved entirely from the facet bitmaps
+    public VideoFacetIndex.Result browseVideos(VideoFacetIndex.Filter filter, long after, int count) {
+        return videoFacetIndex.browse(filter, after, count);
+    }
+
+    // Cached videos in the given order; ids deleted in the meantime are skipped
+    public List<Video> getVideosByIds(List<Long> ids) {
+        return ids.stream()
+                .map(videoCatalogCache::findById)
+                .flatMap(Optional::stream)
+                .toList();
     }
 
     @Transactional
     public Video createVideo(Video video) {
-        return videoRepository.save(video);
+        Video savedVideo = videoRepository.save(video);
+        videoInventory.setAvailableCopies(savedVideo.getId(), savedVideo.getAvailableCopies());
+        eventPublisher.publishEvent(VideoChangedEvent.created(savedVideo));
+        return savedVideo;
     }
 
     @Transactional
     public Video updateVideo(Long id, Video videoDetails) {
-        Video video = getVideoById(id);
+        // Always edit the managed entity, never a cached copy
+        Video video = videoRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Video not found with id: " + id));
         video.setTitle(videoDetails.getTitle());
         video.setDirector(videoDetails.getDirector());
         video.setGenre(videoDetails.getGenre());
         video.setReleaseYear(videoDetails.getReleaseYear());
         video.setAvailableCopies(videoDetails.getAvailableCopies());
         video.setRentalPrice(videoDetails.getRentalPrice());
-        return videoRepository.save(video);
+        videoInventory.setAvailableCopies(id, video.getAvailableCopies());
+        Video savedVideo = videoRepository.save(video);
+        eventPublisher.publishEvent(VideoChangedEvent.updated(savedVideo));
+        return savedVideo;
     }
 
     @Transactional
@@ -54,5 +101,7 @@ public class VideoService {
             throw new ResourceNotFoundException("Video not found with id: " + id);
         }
         videoRepository.deleteById(id);
+        videoInventory.remove(id);
+        eventPublisher.publishEvent(VideoChangedEvent.deleted(id));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,218 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.dto.VideoSuggestionDTO;
+import com.rentvideo.rentvideo.event.VideoChangedEvent;
+import com.rentvideo.rentvideo.model.Video;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Typeahead over titles and directors, ranked by rental popularity, without touching the database.
+ * Targets (a title, or a director with all of their videos) are numbered in popularity order when a
+ * snapshot is built, so the best suggestions for a prefix are the lowest numbers among its matches.
+ * Prefixes of up to PRECOMPUTED_PREFIX_LENGTH characters, whose matches can span much of the catalog,
+ * are answered from a top-MAX_LIMIT list computed per prefix at build time. Longer prefixes binary
+ * search a sorted array holding every word start of every target ("the matrix" and "matrix") and
+ * scan only their matching range. Snapshots are immutable and built on a background thread after
+ * catalog writes (coalesced, so a bulk import costs one rebuild) and every suggest.refresh-interval-ms
+ * to pick up new rentals, so request threads never sort or sum popularity.
+ */
+@Component
+public class VideoSuggester implements DisposableBean {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private static final int PRECOMPUTED_PREFIX_LENGTH = 3;
+    private static final int[] NO_MATCHES = new int[0];
+
+    private static final Logger log = LoggerFactory.getLogger(VideoSuggester.class);
+
+    private final VideoCatalogCache videoCatalogCache;
+    private final VideoPopularity videoPopularity;
+
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggestion-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private volatile Snapshot snapshot; // Null until the first build
+
+    private record Target(String text, String field, Long videoId, long popularity) {
+    }
+
+    // keys[i] is a normalized word start and rankOf[i] its target; targets are in rank order;
+    // top maps each short prefix to the ranks of its best targets, best first
+    private record Snapshot(String[] keys, int[] rankOf, Target[] targets, Map<String, int[]> top) {
+    }
+
+    private record Key(String key, int rank) {
+    }
+
+    public VideoSuggester(VideoCatalogCache videoCatalogCache, VideoPopularity videoPopularity) {
+        this.videoCatalogCache = videoCatalogCache;
+        this.videoPopularity = videoPopularity;
+    }
+
+    public List<VideoSuggestionDTO> suggest(String prefix, int limit) {
+        String normalized = VideoSearchIndex.fold(prefix);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        Snapshot current = currentSnapshot();
+        int[] ranks = normalized.length() <= PRECOMPUTED_PREFIX_LENGTH
+                ? current.top().getOrDefault(normalized, NO_MATCHES)
+                : bestRanks(current, normalized, limit);
+
+        List<VideoSuggestionDTO> suggestions = new ArrayList<>();
+        for (int i = 0; i < ranks.length && i < limit; i++) {
+            Target target = current.targets()[ranks[i]];
+            suggestions.add(new VideoSuggestionDTO(target.text(), target.field(), target.videoId(), target.popularity()));
+        }
+        return suggestions;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVideoChanged(VideoChangedEvent event) {
+        requestRebuild();
+    }
+
+    // Warm up at startup and re-rank periodically with the latest rental counts
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${suggest.refresh-interval-ms:60000}", initialDelayString = "${suggest.refresh-interval-ms:60000}")
+    public void refresh() {
+        requestRebuild();
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+    }
+
+    // At most one rebuild waits in the queue; it reads the catalog when it runs, so it covers every write before it
+    private void requestRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildQueued.set(false); // Cleared first so a write during the rebuild queues another one
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Rebuilding suggestions failed; serving the previous snapshot", e);
+                }
+            });
+        }
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = rebuild(); // Only if a request arrives before the startup build has finished
+                }
+            }
+        }
+        return current;
+    }
+
+    private synchronized Snapshot rebuild() {
+        Snapshot built = build(videoCatalogCache.findAll());
+        snapshot = built;
+        return built;
+    }
+
+    private Snapshot build(List<Video> videos) {
+        List<Target> targets = new ArrayList<>();
+        Map<String, List<Video>> byDirector = new LinkedHashMap<>();
+        for (Video video : videos) {
+            targets.add(new Target(video.getTitle(), "title", video.getId(), videoPopularity.getRentalCount(video.getId())));
+            byDirector.computeIfAbsent(VideoSearchIndex.fold(video.getDirector()), name -> new ArrayList<>()).add(video);
+        }
+        byDirector.forEach((name, directed) -> {
+            if (!name.isEmpty()) {
+                long popularity = directed.stream().mapToLong(video -> videoPopularity.getRentalCount(video.getId())).sum();
+                targets.add(new Target(directed.get(0).getDirector(), "director", null, popularity));
+            }
+        });
+        targets.sort(Comparator.comparingLong(Target::popularity).reversed().thenComparing(Target::text));
+
+        List<Key> keys = new ArrayList<>();
+        Map<String, List<Integer>> top = new HashMap<>();
+        // In rank order, so each prefix list fills up with its best targets and then stops growing
+        for (int rank = 0; rank < targets.size(); rank++) {
+            String normalized = VideoSearchIndex.fold(targets.get(rank).text());
+            Set<String> prefixes = new HashSet<>();
+            for (int i = 0; i < normalized.length(); i++) {
+                if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                    String key = normalized.substring(i);
+                    keys.add(new Key(key, rank));
+                    for (int length = 1; length <= Math.min(PRECOMPUTED_PREFIX_LENGTH, key.length()); length++) {
+                        prefixes.add(key.substring(0, length));
+                    }
+                }
+            }
+            for (String prefix : prefixes) {
+                List<Integer> best = top.computeIfAbsent(prefix, p -> new ArrayList<>());
+                if (best.size() < MAX_LIMIT) {
+                    best.add(rank);
+                }
+            }
+        }
+        keys.sort(Comparator.comparing(Key::key).thenComparingInt(Key::rank));
+
+        String[] sortedKeys = new String[keys.size()];
+        int[] rankOf = new int[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            sortedKeys[i] = keys.get(i).key();
+            rankOf[i] = keys.get(i).rank();
+        }
+        Map<String, int[]> topRanks = new HashMap<>();
+        top.forEach((prefix, best) -> topRanks.put(prefix, best.stream().mapToInt(Integer::intValue).toArray()));
+        return new Snapshot(sortedKeys, rankOf, targets.toArray(new Target[0]), topRanks);
+    }
+
+    // The 'limit' best distinct targets among the keys starting with prefix (several word starts of one title can match)
+    private static int[] bestRanks(Snapshot snapshot, String prefix, int limit) {
+        String[] keys = snapshot.keys();
+        int from = lowerBound(keys, prefix);
+        int to = from;
+        while (to < keys.length && keys[to].startsWith(prefix)) {
+            to++;
+        }
+        return IntStream.range(from, to).map(i -> snapshot.rankOf()[i]).distinct().sorted().limit(limit).toArray();
+    }
+
+    // First index whose key is >= prefix; all keys starting with prefix follow it contiguously
+    private static int lowerBound(String[] keys, String prefix) {
+        int index = Arrays.binarySearch(keys, prefix);
+        if (index >= 0) {
+            while (index > 0 && keys[index - 1].equals(prefix)) {
+                index--;
+            }
+            return index;
+        }
+        return -index - 1;
+    }
+}
@@ -4,20 +4,24 @@ import com.rentvideo.rentvideo.dto.JwtResponse;
 import com.rentvideo.rentvideo.dto.LoginRequest;
 import com.rentvideo.rentvideo.dto.RegisterRequest;
 import com.rentvideo.rentvideo.dto.UserResponse;
+import com.rentvideo.rentvideo.exception.InvalidRefreshTokenException;
 import com.rentvideo.rentvideo.exception.UserAlreadyExistsException;
 import com.rentvideo.rentvideo.model.Role;
 import com.rentvideo.rentvideo.model.User;
 import com.rentvideo.rentvideo.repository.RoleRepository;
 import com.rentvideo.rentvideo.repository.UserRepository;
+import com.rentvideo.rentvideo.security.AuthenticatedUser;
 import com.rentvideo.rentvideo.security.JwtUtil;
 import com.rentvideo.rentvideo.service.AuthService;
+import com.rentvideo.rentvideo.service.RefreshTokenService;
+import com.rentvideo.rentvideo.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.security.core.userdetails.UserDetails; // Add this import
 
 import java.util.HashSet;
 import java.util.List;
@@ -32,14 +36,19 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthServiceImpl(UserRepository userRepository, RoleRepository roleRepository,
-                           PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtUtil jwtUtil) {
+                           PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager, JwtUtil jwtUtil,
+                           RefreshTokenService refreshTokenService, TokenRevocationService tokenRevocationService) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -75,18 +84,44 @@ public class AuthServiceImpl implements AuthService {
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        // This is the missing line to declare and assign 'userDetails'
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal(); // <--- ADD THIS LINE
-
-        String jwt = jwtUtil.generateToken(userDetails); // Now 'userDetails' is defined
-
-        User user = userRepository.findByUsername(loginRequest.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Loaded by CustomUserDetailsService during authenticate(): id, email and token version come with it
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
         List<String> roles = authentication.getAuthorities().stream()
                 .map(item -> item.getAuthority())
                 .collect(Collectors.toList());
 
-        return new JwtResponse(jwt, user.getId(), user.getUsername(), user.getEmail(), roles);
+        String jwt = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getTokenVersion(), roles);
+
+        String refreshToken = refreshTokenService.issue(user.getId());
+
+        return new JwtResponse(jwt, refreshToken, user.getId(), user.getUsername(), user.getEmail(), roles);
+    }
+
+    // No AuthenticationManager and no BCrypt: the refresh token lookup is the proof, the user row supplies current roles
+    @Override
+    public JwtResponse refreshToken(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("User no longer exists"));
+
+        List<String> roles = user.getRoles().stream()
+                .map(role -> role.getName().name())
+                .toList();
+        String jwt = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getTokenVersion(), roles);
+
+        return new JwtResponse(jwt, rotation.refreshToken(), user.getId(), user.getUsername(), user.getEmail(), roles);
+    }
+
+    // The access token stops working at once; the refresh token, if given, ends its whole session
+    @Override
+    public void logout(String accessToken, String refreshToken) {
+        Claims claims = jwtUtil.parseToken(accessToken);
+        if (claims.getId() != null) {
+            tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration());
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revokeFamily(refreshToken);
+        }
     }
 }
\ No newline at end of file
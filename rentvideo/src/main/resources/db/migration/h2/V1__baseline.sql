@@ -0,0 +1,42 @@
+-- Schema as Hibernate generated it before migrations took over (ddl-auto=update); later changes go in new scripts.
+-- Such databases are adopted with the flyway-baseline profile, which records this script as applied and runs the rest.
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE roles (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name ENUM ('ROLE_ADMIN', 'ROLE_USER') NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_roles (
+    role_id BIGINT NOT NULL REFERENCES roles,
+    user_id BIGINT NOT NULL REFERENCES users,
+    PRIMARY KEY (role_id, user_id)
+);
+
+CREATE TABLE videos (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    title VARCHAR(255) NOT NULL,
+    director VARCHAR(255) NOT NULL,
+    genre VARCHAR(255) NOT NULL,
+    release_year INTEGER NOT NULL,
+    available_copies INTEGER NOT NULL,
+    rental_price FLOAT(53) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE rentals (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id BIGINT NOT NULL REFERENCES users,
+    video_id BIGINT NOT NULL REFERENCES videos,
+    rental_date DATE NOT NULL,
+    return_date DATE,
+    total_cost FLOAT(53),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,6 @@
+-- Lookups that run on every rent and return, and the per-user listings.
+-- H2 has no partial indexes, so the active-rental check uses the full (user_id, video_id, return_date) key;
+-- H2 secondary indexes carry the primary key, so SELECT id ... WHERE user_id, video_id, return_date IS NULL is answered from the index alone.
+CREATE INDEX IF NOT EXISTS idx_rentals_user_video_return ON rentals (user_id, video_id, return_date);
+CREATE INDEX IF NOT EXISTS idx_rentals_user_rental_date ON rentals (user_id, rental_date);
+CREATE INDEX IF NOT EXISTS idx_rentals_video ON rentals (video_id);
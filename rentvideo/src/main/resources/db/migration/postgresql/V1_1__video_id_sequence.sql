@@ -0,0 +1,7 @@
+-- Videos take their ids from a pooled sequence (allocation size 50) so that bulk imports can batch their INSERTs.
+-- Hibernate hands out the 50 ids up to each value the sequence returns, so on a table that already has videos the
+-- sequence starts 50 above the highest id; the column's own identity default is dropped, ids now come from Hibernate.
+ALTER TABLE videos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE videos_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('videos_seq', COALESCE(MAX(id), 0) + 50, false) FROM videos;
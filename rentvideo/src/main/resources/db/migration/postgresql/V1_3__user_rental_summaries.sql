@@ -0,0 +1,9 @@
+-- Per-user rental totals, maintained with every rent and return so profile pages never scan the rental history.
+CREATE TABLE user_rental_summaries (
+    user_id BIGINT NOT NULL,
+    active_count INTEGER NOT NULL,
+    lifetime_rentals BIGINT NOT NULL,
+    lifetime_spend DOUBLE PRECISION NOT NULL,
+    last_rental_date DATE,
+    PRIMARY KEY (user_id)
+);
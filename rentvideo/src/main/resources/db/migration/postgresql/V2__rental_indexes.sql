@@ -0,0 +1,8 @@
+-- Lookups that run on every rent and return, and the per-user listings.
+-- The active-rental check only ever looks at unreturned rows, so its index is partial: it holds the handful of
+-- open rentals rather than the whole history and stays the same size as the table grows. INCLUDE (id) covers the
+-- SELECT id ... LIMIT 1 that existsBy... issues, so the check is an index-only scan.
+-- On a large live table, run these by hand with CREATE INDEX CONCURRENTLY before deploying instead.
+CREATE INDEX IF NOT EXISTS idx_rentals_active_user_video ON rentals (user_id, video_id) INCLUDE (id) WHERE return_date IS NULL;
+CREATE INDEX IF NOT EXISTS idx_rentals_user_rental_date ON rentals (user_id, rental_date);
+CREATE INDEX IF NOT EXISTS idx_rentals_video ON rentals (video_id);
@@ -0,0 +1,2 @@
+-- Optimistic lock for Rental: two concurrent returns of the same rental can no longer both commit.
+ALTER TABLE rentals ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,14 @@
+-- Refresh tokens (SHA-256 only). Expired rows are purged by RefreshTokenService; deleting a user deletes its tokens.
+CREATE TABLE refresh_tokens (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    token_hash BYTEA NOT NULL UNIQUE,
+    user_id BIGINT NOT NULL REFERENCES users ON DELETE CASCADE,
+    family_id UUID NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    used_at TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family_id);
+CREATE INDEX idx_refresh_tokens_user ON refresh_tokens (user_id);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
@@ -0,0 +1,11 @@
+-- Access token revocation: bumping users.token_version ends every token issued at the old version, and
+-- revoked_tokens lists revoked token ids and user versions until those tokens would have expired anyway.
+ALTER TABLE users ADD COLUMN token_version INTEGER DEFAULT 0 NOT NULL;
+
+CREATE TABLE revoked_tokens (
+    token_key VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (token_key)
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
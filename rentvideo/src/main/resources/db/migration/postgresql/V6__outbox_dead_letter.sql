@@ -0,0 +1,6 @@
+-- Outbox events whose payload cannot be read are set aside with failed_at instead of blocking every later
+-- event; the publisher only reads rows that are neither published nor failed.
+ALTER TABLE outbox_events ADD COLUMN failed_at TIMESTAMP(6) WITH TIME ZONE;
+
+DROP INDEX idx_outbox_events_unpublished;
+CREATE INDEX idx_outbox_events_unpublished ON outbox_events (published_at, failed_at, id);
@@ -0,0 +1,120 @@
+package com.rentvideo.rentvideo;
+
+import com.rentvideo.rentvideo.dto.LoginRequest;
+import com.rentvideo.rentvideo.dto.RegisterRequest;
+import com.rentvideo.rentvideo.dto.RentalDTO;
+import com.rentvideo.rentvideo.logging.CorrelationIdFilter;
+import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.service.VideoService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// The prod profile end to end over HTTP, with a file-backed H2 database standing in for PostgreSQL.
+// More client threads than pooled connections, so requests queue on the pool instead of each holding one.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/prod-load-test/${random.uuid};MODE=PostgreSQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.hikari.maximum-pool-size=8",
+        "spring.datasource.hikari.minimum-idle=8"
+})
+@ActiveProfiles("prod")
+class ProdProfileLoadTest {
+
+    private static final int CLIENTS = 24;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private VideoService videoService;
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${spring.jpa.open-in-view}")
+    private boolean openInView;
+
+    @Test
+    void rentAndReturnUnderConcurrentLoad() throws Exception {
+        HikariDataSource pool = assertInstanceOf(HikariDataSource.class, dataSource);
+        assertEquals(8, pool.getMaximumPoolSize());
+        assertFalse(openInView);
+
+        Video video = videoService.createVideo(new Video(null, "Load Test Feature", "Director", "Drama", 2010, CLIENTS, 2.5));
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            tokens.add(register("load" + i));
+        }
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (String token : tokens) {
+            results.add(clients.submit(() -> {
+                start.await();
+                for (int round = 0; round < ROUNDS; round++) {
+                    // Both responses are built from the rental's user and video after the service transaction ended
+                    ResponseEntity<RentalDTO> rented = exchange(HttpMethod.POST, "/api/rentals/rent/" + video.getId(), token);
+                    assertEquals(HttpStatus.CREATED, rented.getStatusCode());
+                    assertEquals("Load Test Feature", rented.getBody().getVideoTitle());
+                    assertNotNull(rented.getHeaders().getFirst(CorrelationIdFilter.HEADER));
+
+                    ResponseEntity<RentalDTO> returned = exchange(HttpMethod.PUT, "/api/rentals/return/" + rented.getBody().getId(), token);
+                    assertEquals(HttpStatus.OK, returned.getStatusCode());
+                    assertEquals(2.5, returned.getBody().getTotalCost());
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(120, TimeUnit.SECONDS);
+        }
+        clients.shutdown();
+
+        assertEquals(CLIENTS, videoService.getAvailableCopies(video.getId()));
+        assertEquals(0, pool.getHikariPoolMXBean().getThreadsAwaitingConnection());
+    }
+
+    private String register(String prefix) {
+        String username = TestUsers.uniqueName(prefix);
+        RegisterRequest registerRequest = new RegisterRequest();
+        registerRequest.setUsername(username);
+        registerRequest.setPassword("loadtest-password");
+        registerRequest.setEmail(username + "@example.com");
+        assertEquals(HttpStatus.CREATED, restTemplate.postForEntity("/api/auth/register", registerRequest, Object.class).getStatusCode());
+
+        LoginRequest loginRequest = TestUsers.login(username, "loadtest-password");
+        return (String) restTemplate.postForEntity("/api/auth/login", loginRequest, Map.class).getBody().get("token");
+    }
+
+    private ResponseEntity<RentalDTO> exchange(HttpMethod method, String path, String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return restTemplate.exchange(path, method, new HttpEntity<>(headers), RentalDTO.class);
+    }
+}
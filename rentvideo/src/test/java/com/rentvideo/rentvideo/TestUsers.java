@@ -0,0 +1,39 @@
+package com.rentvideo.rentvideo;
+
+import com.rentvideo.rentvideo.dto.LoginRequest;
+import com.rentvideo.rentvideo.model.User;
+import com.rentvideo.rentvideo.repository.UserRepository;
+
+// Users for tests sharing one database: every name gets a unique suffix, so tests never collide
+public final class TestUsers {
+
+    // For users that never log in
+    public static final String UNUSED_PASSWORD_HASH = "not-used";
+
+    private TestUsers() {
+    }
+
+    public static String uniqueName(String prefix) {
+        return prefix + "-" + System.nanoTime();
+    }
+
+    public static User save(UserRepository userRepository, String prefix) {
+        return save(userRepository, prefix, UNUSED_PASSWORD_HASH);
+    }
+
+    public static User save(UserRepository userRepository, String prefix, String passwordHash) {
+        String username = uniqueName(prefix);
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword(passwordHash);
+        return userRepository.save(user);
+    }
+
+    public static LoginRequest login(String username, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,72 @@
+package com.rentvideo.rentvideo.controller;
+
+import com.rentvideo.rentvideo.TestUsers;
+import com.rentvideo.rentvideo.dto.JwtResponse;
+import com.rentvideo.rentvideo.dto.RegisterRequest;
+import com.rentvideo.rentvideo.model.Rental;
+import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.service.AuthService;
+import com.rentvideo.rentvideo.service.RentalService;
+import com.rentvideo.rentvideo.service.VideoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RentalControllerTest {
+
+    private static final String PASSWORD = "controller-secret";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private VideoService videoService;
+
+    private Video video;
+
+    @BeforeEach
+    void setUp() {
+        video = videoService.createVideo(new Video(null, "Controller Feature", "Director", "Drama", 2004, 2, 2.0));
+    }
+
+    @Test
+    void returningSomeoneElsesRentalIsForbidden() throws Exception {
+        JwtResponse owner = registerAndLogin("owner");
+        JwtResponse other = registerAndLogin("other");
+        Rental rental = rentalService.rentVideo(owner.getId(), video.getId());
+
+        mockMvc.perform(put("/api/rentals/return/{rentalId}", rental.getId()).header(HttpHeaders.AUTHORIZATION, bearer(other)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/api/rentals/return/{rentalId}", rental.getId()).header(HttpHeaders.AUTHORIZATION, bearer(owner)))
+                .andExpect(status().isOk());
+    }
+
+    private JwtResponse registerAndLogin(String prefix) {
+        String username = TestUsers.uniqueName(prefix);
+        RegisterRequest register = new RegisterRequest();
+        register.setUsername(username);
+        register.setEmail(username + "@example.com");
+        register.setPassword(PASSWORD);
+        authService.registerUser(register);
+        JwtResponse login = authService.authenticateUser(TestUsers.login(username, PASSWORD));
+        SecurityContextHolder.clearContext(); // Login sets it on this thread; requests must authenticate by their token
+        return login;
+    }
+
+    private static String bearer(JwtResponse login) {
+        return "Bearer " + login.getToken();
+    }
+}
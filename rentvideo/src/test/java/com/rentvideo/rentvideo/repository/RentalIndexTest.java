@@ -0,0 +1,38 @@
+package com.rentvideo.rentvideo.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The lookups RentalService runs on every rent and return must be index seeks, not scans of the rental history
+@SpringBootTest
+class RentalIndexTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void activeRentalCheckUsesTheCompositeIndex() {
+        String plan = explain("SELECT r.id FROM rentals r WHERE r.video_id = 1 AND r.user_id = 2 AND r.return_date IS NULL FETCH FIRST 1 ROWS ONLY");
+        assertTrue(plan.contains("IDX_RENTALS_USER_VIDEO_RETURN"), plan);
+    }
+
+    @Test
+    void userHistoryByDateUsesTheUserDateIndex() {
+        String plan = explain("SELECT r.id FROM rentals r WHERE r.user_id = 2 ORDER BY r.rental_date DESC FETCH FIRST 20 ROWS ONLY");
+        assertTrue(plan.contains("IDX_RENTALS_USER_RENTAL_DATE"), plan);
+    }
+
+    @Test
+    void rentalsOfAVideoUseTheVideoIndex() {
+        String plan = explain("SELECT COUNT(*) FROM rentals r WHERE r.video_id = 1");
+        assertTrue(plan.contains("IDX_RENTALS_VIDEO"), plan);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+    }
+}
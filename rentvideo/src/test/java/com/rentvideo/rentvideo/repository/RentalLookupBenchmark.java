@@ -0,0 +1,121 @@
+package com.rentvideo.rentvideo.repository;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Latency of the per-rent/return lookups against a standalone H2 rentals table of growing size, with the
+// V2 migration's indexes (indexed=true) or only the primary key (indexed=false, expect it to grow with rows).
+// Run with: mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+//     "-Dexec.args=-cp %classpath com.rentvideo.rentvideo.repository.RentalLookupBenchmark"
+// Add e.g. "-p rows=100000 -p indexed=false" after the class name for a quick comparison against a scan.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class RentalLookupBenchmark {
+
+    private static final int RENTALS_PER_USER = 20;
+    private static final int VIDEOS = 10_000;
+
+    @Param({"100000", "1000000", "10000000"})
+    private int rows;
+
+    @Param({"true"})
+    private boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement activeRental;
+    private PreparedStatement recentRentals;
+    private int users;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:rental_lookup_" + System.nanoTime(), "sa", "");
+        users = Math.max(1, rows / RENTALS_PER_USER);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE rentals (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "user_id BIGINT NOT NULL, video_id BIGINT NOT NULL, rental_date DATE NOT NULL, "
+                    + "return_date DATE, total_cost DOUBLE)");
+            // One open rental in twenty, spread over ten years of history
+            statement.execute("INSERT INTO rentals (user_id, video_id, rental_date, return_date) "
+                    + "SELECT MOD(X, " + users + ") + 1, MOD(X * 7919, " + VIDEOS + ") + 1, "
+                    + "DATEADD('DAY', -MOD(X, 3650), CURRENT_DATE), "
+                    + "CASE WHEN MOD(X, 20) = 0 THEN NULL ELSE CURRENT_DATE END "
+                    + "FROM SYSTEM_RANGE(1, " + rows + ")");
+            if (indexed) {
+                for (String ddl : migration("db/migration/h2/V2__rental_indexes.sql")) {
+                    statement.execute(ddl);
+                }
+            }
+            statement.execute("ANALYZE");
+        }
+        // Same shape as the SQL Hibernate issues for existsByVideoAndUserAndReturnDateIsNull
+        activeRental = connection.prepareStatement("SELECT r.id FROM rentals r "
+                + "WHERE r.video_id = ? AND r.user_id = ? AND r.return_date IS NULL FETCH FIRST 1 ROWS ONLY");
+        recentRentals = connection.prepareStatement("SELECT r.id, r.video_id, r.rental_date FROM rentals r "
+                + "WHERE r.user_id = ? ORDER BY r.rental_date DESC FETCH FIRST 20 ROWS ONLY");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean activeRentalCheck() throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        activeRental.setLong(1, random.nextInt(VIDEOS) + 1);
+        activeRental.setLong(2, random.nextInt(users) + 1);
+        try (ResultSet resultSet = activeRental.executeQuery()) {
+            return resultSet.next();
+        }
+    }
+
+    @Benchmark
+    public int recentRentalsOfUser() throws SQLException {
+        recentRentals.setLong(1, ThreadLocalRandom.current().nextInt(users) + 1);
+        int count = 0;
+        try (ResultSet resultSet = recentRentals.executeQuery()) {
+            while (resultSet.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Statements of a migration script, without its comment lines
+    private static String[] migration(String resource) throws IOException {
+        try (InputStream in = RentalLookupBenchmark.class.getClassLoader().getResourceAsStream(resource)) {
+            String sql = new String(in.readAllBytes(), StandardCharsets.UTF_8).replaceAll("(?m)^--.*$", "");
+            return sql.trim().split(";\\s*");
+        }
+    }
+
+    // Accepts the usual JMH command line options, e.g. -p rows=100000
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(RentalLookupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,92 @@
+package com.rentvideo.rentvideo.security;
+
+import com.rentvideo.rentvideo.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffloadingPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private OffloadingPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.destroy();
+    }
+
+    @Test
+    void hashesAndVerifiesThroughTheDelegate() {
+        encoder = new OffloadingPasswordEncoder(new BCryptPasswordEncoder(4), 2, 10, 5000);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+    }
+
+    @Test
+    void callsBeyondThePoolAndQueueAreRejectedAtOnce() throws Exception {
+        encoder = new OffloadingPasswordEncoder(blockingEncoder(), 1, 1, 5000);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        while (encoder.getQueuedCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        long begin = System.nanoTime();
+        assertThrows(ServiceBusyException.class, () -> encoder.encode("third"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) < 1000);
+
+        release.countDown();
+        String first = running.get(5, TimeUnit.SECONDS);
+        String second = queued.get(5, TimeUnit.SECONDS); // Both done: the pool is free again
+        assertTrue(encoder.matches("first", first));
+        assertTrue(encoder.matches("second", second));
+    }
+
+    @Test
+    void callsThatWaitTooLongGiveUp() throws Exception {
+        encoder = new OffloadingPasswordEncoder(blockingEncoder(), 1, 10, 100);
+        CompletableFuture.runAsync(() -> encoder.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertThrows(ServiceBusyException.class, () -> encoder.encode("second"));
+    }
+
+    // Hashes like BCrypt, but the first call holds the only hashing thread until released
+    private PasswordEncoder blockingEncoder() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if (started.getCount() > 0) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return bcrypt.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+        };
+    }
+}
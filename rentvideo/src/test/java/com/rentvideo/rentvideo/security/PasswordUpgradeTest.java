@@ -0,0 +1,105 @@
+package com.rentvideo.rentvideo.security;
+
+import com.rentvideo.rentvideo.TestUsers;
+import com.rentvideo.rentvideo.exception.ServiceBusyException;
+import com.rentvideo.rentvideo.repository.UserRepository;
+import com.rentvideo.rentvideo.service.AuthService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PasswordUpgradeTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void legacyHashIsRehashedOnSuccessfulLogin() {
+        // Stored before the {bcrypt} prefix, and with a cost below the configured one
+        String username = saveUser(new BCryptPasswordEncoder(4).encode("old-secret"));
+
+        authService.authenticateUser(TestUsers.login(username, "old-secret"));
+
+        String stored = userRepository.findByUsername(username).orElseThrow().getPassword();
+        assertTrue(stored.startsWith("{bcrypt}$2a$"));
+        assertFalse(passwordEncoder.upgradeEncoding(stored));
+        assertTrue(passwordEncoder.matches("old-secret", stored));
+    }
+
+    @Test
+    void currentHashIsLeftAlone() {
+        String hash = passwordEncoder.encode("current-secret");
+        String username = saveUser(hash);
+
+        authService.authenticateUser(TestUsers.login(username, "current-secret"));
+
+        assertEquals(hash, userRepository.findByUsername(username).orElseThrow().getPassword());
+    }
+
+    @Test
+    void busyHashingPoolSkipsTheRehashButNotTheLogin() {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(
+                User.withUsername("busy").password("old-hash").roles("USER").build());
+        BestEffortRehashAuthenticationProvider provider = new BestEffortRehashAuthenticationProvider(users);
+        provider.setPasswordEncoder(new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                if ("secret".contentEquals(rawPassword)) {
+                    throw new ServiceBusyException("busy"); // Only the rehash; the provider also encodes a dummy password
+                }
+                return "dummy-hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return true;
+            }
+        });
+        provider.setUserDetailsPasswordService(users);
+
+        Authentication result = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("busy", "secret"));
+
+        assertTrue(result.isAuthenticated());
+        assertEquals("busy", result.getName());
+        assertEquals("old-hash", users.loadUserByUsername("busy").getPassword()); // Upgraded on a later login
+    }
+
+    @Test
+    void hashWithAnyOtherCostNeedsUpgrading() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    void calibrationStaysWithinBounds() {
+        assertEquals(4, CalibratedBCryptPasswordEncoder.calibrate(0, 4, 6).getStrength());
+        assertEquals(6, CalibratedBCryptPasswordEncoder.calibrate(60_000, 4, 6).getStrength());
+    }
+
+    private String saveUser(String passwordHash) {
+        return TestUsers.save(userRepository, "rehash", passwordHash).getUsername();
+    }
+}
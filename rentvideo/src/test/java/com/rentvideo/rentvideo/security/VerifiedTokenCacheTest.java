@@ -0,0 +1,77 @@
+package com.rentvideo.rentvideo.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerifiedTokenCacheTest {
+
+    @Test
+    void repeatedTokenIsServedFromTheCache() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        Claims claims = claims("alice", 60_000);
+
+        assertNull(cache.get("token-a"));
+        cache.put("token-a", claims);
+
+        assertSame(claims, cache.get("token-a"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void anotherTokenOfTheSameSubjectMisses() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("token-a", claims("alice", 60_000));
+
+        // Keyed by the whole token, so a forged token naming the same user is never answered from the cache
+        assertNull(cache.get("token-b"));
+    }
+
+    @Test
+    void entriesNeverOutliveTheTokenExpiry() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        cache.put("expired", claims("alice", -1_000));
+        cache.put("expiring", claims("bob", 200));
+        cache.put("no-exp", Jwts.claims().setSubject("carol"));
+
+        assertNull(cache.get("expired"));
+        assertNull(cache.get("no-exp"));
+        Thread.sleep(300);
+        assertNull(cache.get("expiring"));
+    }
+
+    @Test
+    void sizeStaysWithinTheBound() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        for (int i = 0; i < 100; i++) {
+            cache.put("token-" + i, claims("user" + i, 60_000));
+        }
+
+        assertTrue(cache.size() <= 10, "size: " + cache.size());
+        assertTrue(cache.getEvictions() >= 90);
+        // The newest token is always kept
+        assertNotNull(cache.get("token-99"));
+    }
+
+    @Test
+    void sizeZeroDisablesTheCache() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(0);
+        cache.put("token-a", claims("alice", 60_000));
+
+        assertNull(cache.get("token-a"));
+        assertEquals(0, cache.size());
+    }
+
+    private static Claims claims(String subject, long expiresInMillis) {
+        return Jwts.claims().setSubject(subject).setExpiration(new Date(System.currentTimeMillis() + expiresInMillis));
+    }
+}
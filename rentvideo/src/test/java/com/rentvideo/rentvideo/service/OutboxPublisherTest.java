@@ -0,0 +1,121 @@
+package com.rentvideo.rentvideo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentvideo.rentvideo.TestUsers;
+import com.rentvideo.rentvideo.event.FileRentalEventSink;
+import com.rentvideo.rentvideo.event.RentalEvent;
+import com.rentvideo.rentvideo.model.OutboxEvent;
+import com.rentvideo.rentvideo.model.Rental;
+import com.rentvideo.rentvideo.model.User;
+import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.repository.OutboxEventRepository;
+import com.rentvideo.rentvideo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OutboxPublisherTest {
+
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private VideoService videoService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private Video video;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.save(userRepository, "outbox");
+        video = videoService.createVideo(new Video(null, "Outbox Feature", "Director", "Drama", 2003, 3, 2.0));
+    }
+
+    @Test
+    void rentAndReturnAreWrittenToTheOutboxAndPublished() {
+        Rental rental = rentalService.rentVideo(user.getId(), video.getId());
+        rentalService.returnVideo(rental.getId(), user.getId());
+
+        List<OutboxEvent> events = eventsFor(rental.getId());
+        assertEquals(List.of("RENTED", "RETURNED"), events.stream().map(OutboxEvent::getEventType).toList());
+
+        outboxPublisher.publishPending();
+        eventsFor(rental.getId()).forEach(event -> assertNotNull(event.getPublishedAt()));
+    }
+
+    @Test
+    void corruptEventIsSetAsideAndLaterEventsAreStillPublished() {
+        OutboxEvent corrupt = new OutboxEvent();
+        corrupt.setEventType("RENTED");
+        corrupt.setAggregateId(-1L);
+        corrupt.setPayload("{not json");
+        corrupt.setCreatedAt(Instant.now());
+        Long corruptId = outboxEventRepository.save(corrupt).getId();
+        Rental rental = rentalService.rentVideo(user.getId(), video.getId());
+
+        outboxPublisher.publishPending();
+
+        OutboxEvent failed = outboxEventRepository.findById(corruptId).orElseThrow();
+        assertNotNull(failed.getFailedAt());
+        assertNull(failed.getPublishedAt());
+        eventsFor(rental.getId()).forEach(event -> assertNotNull(event.getPublishedAt()));
+        // Dead-lettered rows are no longer read, so they cannot hold up later batches
+        assertTrue(outboxEventRepository.findByPublishedAtIsNullAndFailedAtIsNullOrderByIdAsc(Limit.of(1000)).stream()
+                .noneMatch(event -> event.getId().equals(corruptId)));
+    }
+
+    @Test
+    void rolledBackRentalsLeaveNoOutboxEvents() {
+        long before = outboxEventRepository.count();
+
+        rentalService.rentVideos(user.getId(), List.of(video.getId(), Long.MAX_VALUE), true);
+
+        assertEquals(before, outboxEventRepository.count());
+    }
+
+    @Test
+    void fileSinkAppendsOneJsonLinePerEvent(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("events.ndjson");
+        FileRentalEventSink sink = new FileRentalEventSink(file.toString(), objectMapper);
+        Rental rental = rentalService.rentVideo(user.getId(), video.getId());
+        RentalEvent event = RentalEvent.rented(rental).withEventId(42L);
+
+        sink.accept(List.of(event, event));
+        sink.accept(List.of(event));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        RentalEvent read = objectMapper.readValue(lines.get(0), RentalEvent.class);
+        assertEquals(42L, read.eventId());
+        assertEquals(rental.getId(), read.rentalId());
+        assertTrue(lines.get(0).contains("\"type\":\"RENTED\""));
+    }
+
+    private List<OutboxEvent> eventsFor(Long rentalId) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(rentalId))
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .toList();
+    }
+}
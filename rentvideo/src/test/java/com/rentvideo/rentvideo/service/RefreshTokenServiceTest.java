@@ -0,0 +1,90 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.TestUsers;
+import com.rentvideo.rentvideo.dto.JwtResponse;
+import com.rentvideo.rentvideo.dto.LoginRequest;
+import com.rentvideo.rentvideo.exception.InvalidRefreshTokenException;
+import com.rentvideo.rentvideo.model.RefreshToken;
+import com.rentvideo.rentvideo.model.User;
+import com.rentvideo.rentvideo.repository.RefreshTokenRepository;
+import com.rentvideo.rentvideo.repository.UserRepository;
+import com.rentvideo.rentvideo.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        User user = TestUsers.save(userRepository, "refresh", passwordEncoder.encode("secret"));
+        username = user.getUsername();
+    }
+
+    @Test
+    void refreshRotatesTheTokenPair() {
+        JwtResponse login = authService.authenticateUser(login());
+
+        JwtResponse refreshed = authService.refreshToken(login.getRefreshToken());
+
+        assertEquals(username, jwtUtil.parseToken(refreshed.getToken()).getSubject());
+        assertNotEquals(login.getRefreshToken(), refreshed.getRefreshToken());
+        assertEquals(login.getId(), refreshed.getId());
+        // The new refresh token works in turn
+        authService.refreshToken(refreshed.getRefreshToken());
+    }
+
+    @Test
+    void reusingARetiredTokenRevokesTheWholeFamily() {
+        JwtResponse login = authService.authenticateUser(login());
+        JwtResponse refreshed = authService.refreshToken(login.getRefreshToken());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refreshToken(login.getRefreshToken()));
+        // The legitimate holder's current token is gone too: the session has to log in again
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refreshToken(refreshed.getRefreshToken()));
+    }
+
+    @Test
+    void expiredAndUnknownTokensAreRejected() {
+        JwtResponse login = authService.authenticateUser(login());
+        Long userId = login.getId();
+        refreshTokenRepository.findAll().stream()
+                .filter(token -> token.getUserId().equals(userId))
+                .forEach(token -> {
+                    token.setExpiresAt(Instant.now().minusSeconds(1));
+                    refreshTokenRepository.save(token);
+                });
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(login.getRefreshToken()));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("not-a-token"));
+        assertEquals(1, refreshTokenRepository.findAll().stream().map(RefreshToken::getUserId).filter(userId::equals).count());
+    }
+
+    private LoginRequest login() {
+        return TestUsers.login(username, "secret");
+    }
+}
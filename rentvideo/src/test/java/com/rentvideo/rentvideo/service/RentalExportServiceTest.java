@@ -0,0 +1,119 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.model.User;
+import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.repository.UserRepository;
+import com.rentvideo.rentvideo.repository.VideoRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RentalExportServiceTest {
+
+    private static final int ROWS = 200_000;
+    private static final int SAMPLE_EVERY_LINES = 10_000;
+
+    @Autowired
+    private RentalExportService rentalExportService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private VideoRepository videoRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long userId;
+    private Long videoId;
+
+    @AfterEach
+    void removeGeneratedRows() {
+        jdbcTemplate.update("DELETE FROM rentals WHERE user_id = ?", userId);
+        userRepository.deleteById(userId);
+        videoRepository.deleteById(videoId);
+    }
+
+    @Test
+    void exportsEveryRowWithoutMaterializingTheHistory() throws Exception {
+        generateRentals();
+
+        CountingOutputStream ndjson = new CountingOutputStream(entityManager);
+        long exported = rentalExportService.exportRentals(ndjson, RentalExportService.Format.NDJSON);
+
+        assertTrue(exported >= ROWS);
+        assertEquals(exported, ndjson.lines);
+        // Sampled inside the export transaction while rows were being written: nothing is ever managed,
+        // so the persistence context (and with it the heap) cannot grow with the history
+        assertTrue(ndjson.samples >= ROWS / SAMPLE_EVERY_LINES);
+        assertEquals(0, ndjson.maxManagedEntities);
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        rentalExportService.exportRentals(csv, RentalExportService.Format.CSV);
+        String[] lines = csv.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("id,userId,username,videoId,videoTitle,rentalDate,returnDate,totalCost", lines[0]);
+        assertEquals(exported + 1, lines.length);
+        assertTrue(csv.toString(StandardCharsets.UTF_8).contains(",exporter,"));
+        assertTrue(csv.toString(StandardCharsets.UTF_8).contains(",\"Export, The Movie\","));
+    }
+
+    private void generateRentals() {
+        User user = new User();
+        user.setUsername("exporter");
+        user.setEmail("exporter@example.com");
+        user.setPassword("not-used");
+        userId = userRepository.save(user).getId();
+        videoId = videoRepository.save(new Video(null, "Export, The Movie", "Director", "Drama", 2001, 1, 1.0)).getId();
+
+        Date rentalDate = Date.valueOf(LocalDate.of(2024, 1, 1));
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(new Object[]{userId, videoId, rentalDate});
+            if (batch.size() == 10_000) {
+                jdbcTemplate.batchUpdate("INSERT INTO rentals (user_id, video_id, rental_date) VALUES (?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Discards the bytes and only counts lines, so the test itself does not hold the export in memory.
+    // Every SAMPLE_EVERY_LINES lines it records how many entities the export's persistence context holds.
+    private static class CountingOutputStream extends OutputStream {
+        private final EntityManager entityManager;
+        private long lines;
+        private long samples;
+        private int maxManagedEntities;
+
+        CountingOutputStream(EntityManager entityManager) {
+            this.entityManager = entityManager;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+                if (lines % SAMPLE_EVERY_LINES == 0) {
+                    samples++;
+                    int managed = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+                    maxManagedEntities = Math.max(maxManagedEntities, managed);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.TestUsers;
+import com.rentvideo.rentvideo.dto.BatchRentalResponse;
+import com.rentvideo.rentvideo.model.User;
+import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.repository.RentalRepository;
+import com.rentvideo.rentvideo.repository.UserRepository;
+import com.rentvideo.rentvideo.repository.VideoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RentalServiceBatchTest {
+
+    private static final long MISSING_VIDEO_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private VideoService videoService;
+    @Autowired
+    private VideoRepository videoRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    private User user;
+    private Video first;
+    private Video second;
+
+    @BeforeEach
+    void setUp() {
+        user = TestUsers.save(userRepository, "kiosk");
+        first = videoService.createVideo(new Video(null, "Batch One", "Director", "Drama", 2001, 2, 1.5));
+        second = videoService.createVideo(new Video(null, "Batch Two", "Director", "Drama", 2002, 1, 2.5));
+    }
+
+    @Test
+    void atomicCheckoutRollsBackEveryItemWhenOneFails() {
+        BatchRentalResponse response = rentalService.rentVideos(user.getId(),
+                List.of(first.getId(), second.getId(), MISSING_VIDEO_ID), true);
+
+        assertTrue(response.getRentals().isEmpty());
+        assertEquals(1, response.getErrors().size());
+        assertEquals(MISSING_VIDEO_ID, response.getErrors().get(0).getVideoId());
+        assertTrue(rentalRepository.findByUser(user).isEmpty());
+        assertEquals(2, videoService.getAvailableCopies(first.getId()));
+        assertEquals(2, videoRepository.findById(first.getId()).orElseThrow().getAvailableCopies());
+        assertEquals(1, videoService.getAvailableCopies(second.getId()));
+    }
+
+    @Test
+    void perItemCheckoutKeepsSuccessfulItemsAndReturnsThemInOneCall() {
+        BatchRentalResponse rented = rentalService.rentVideos(user.getId(),
+                List.of(first.getId(), second.getId(), first.getId(), MISSING_VIDEO_ID), false);
+
+        assertEquals(2, rented.getRentals().size());
+        assertEquals("Batch Two", rented.getRentals().get(1).getVideoTitle());
+        assertEquals(2, rented.getErrors().size()); // The repeated title and the missing one
+        assertEquals(1, videoService.getAvailableCopies(first.getId()));
+        assertEquals(0, videoService.getAvailableCopies(second.getId()));
+
+        BatchRentalResponse returned = rentalService.returnVideos(user.getId(),
+                List.of(first.getId(), second.getId()), true);
+
+        assertEquals(2, returned.getRentals().size());
+        assertTrue(returned.getErrors().isEmpty());
+        returned.getRentals().forEach(rental -> assertNotNull(rental.getTotalCost()));
+        assertEquals(2, videoService.getAvailableCopies(first.getId()));
+        assertEquals(1, videoRepository.findById(second.getId()).orElseThrow().getAvailableCopies());
+    }
+}
@@ -0,0 +1,85 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.exception.VideoRentalException;
+import com.rentvideo.rentvideo.model.User;
+import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.repository.RentalRepository;
+import com.rentvideo.rentvideo.repository.UserRepository;
+import com.rentvideo.rentvideo.repository.VideoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class RentalServiceConcurrencyTest {
+
+    private static final int COPIES = 5;
+    private static final int RENTERS = 32;
+
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private VideoService videoService;
+    @Autowired
+    private VideoRepository videoRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    @Test
+    void concurrentRentalsOfOneTitleNeverOversell() throws Exception {
+        Video video = videoService.createVideo(new Video(null, "Hot New Release", "Some Director", "Action", 2024, COPIES, 4.99));
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < RENTERS; i++) {
+            User user = new User();
+            user.setUsername("renter" + i);
+            user.setEmail("renter" + i + "@example.com");
+            user.setPassword("not-used");
+            userIds.add(userRepository.save(user).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(RENTERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rented = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (Long userId : userIds) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    rentalService.rentVideo(userId, video.getId());
+                    rented.incrementAndGet();
+                } catch (VideoRentalException e) {
+                    soldOut.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(COPIES, rented.get());
+        assertEquals(RENTERS - COPIES, soldOut.get());
+        assertEquals(0, videoRepository.findById(video.getId()).orElseThrow().getAvailableCopies());
+        assertEquals(0, videoService.getAvailableCopies(video.getId()));
+        long activeRentals = rentalRepository.findAll().stream()
+                .filter(rental -> rental.getVideo().getId().equals(video.getId()))
+                .count();
+        assertEquals(COPIES, activeRentals);
+    }
+}
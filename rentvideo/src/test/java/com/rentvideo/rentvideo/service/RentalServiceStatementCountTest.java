@@ -0,0 +1,115 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.TestUsers;
+import com.rentvideo.rentvideo.dto.RentalDTO;
+import com.rentvideo.rentvideo.model.Rental;
+import com.rentvideo.rentvideo.model.User;
+import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class RentalServiceStatementCountTest {
+
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private VideoService videoService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    private Statistics statistics;
+    private Long userId;
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        User user = TestUsers.save(userRepository, "listing");
+        username = user.getUsername();
+        userId = user.getId();
+        for (int i = 0; i < 3; i++) {
+            Video video = videoService.createVideo(new Video(null, "Listing " + i, "Director " + i, "Drama", 2000 + i, 2, 1.99));
+            rentalService.rentVideo(userId, video.getId());
+        }
+        outboxPublisher.publishPending(); // Drain now so the background publisher stays idle while statements are counted
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void rentalsByUserAreLoadedWithOneStatement() {
+        List<RentalDTO> rentals = rentalService.getRentalsByUser(userId);
+
+        assertEquals(3, rentals.size());
+        assertEquals(username, rentals.get(0).getUsername());
+        assertEquals("Listing 0", rentals.get(0).getVideoTitle());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void rentalPageIsLoadedWithOneStatement() {
+        List<RentalDTO> page = rentalService.getRentalsAfter(0, 50);
+
+        assertTrue(page.size() >= 3);
+        page.forEach(rental -> {
+            // Touching the joined columns must not trigger lazy loads
+            rental.getUsername();
+            rental.getVideoTitle();
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void rentAndReturnLoadEachEntityOnce() {
+        Video video = videoService.createVideo(new Video(null, "Listing Once", "Director", "Drama", 2010, 2, 1.99));
+        statistics.clear();
+
+        Rental rental = rentalService.rentVideo(userId, video.getId());
+        assertEquals(1, loads(User.class));
+        assertEquals(1, loads(Video.class));
+
+        statistics.clear();
+        rentalService.returnVideo(rental.getId(), userId);
+        // Ownership is checked on the rental fetched for the return, together with its user and video
+        assertEquals(1, loads(Rental.class));
+        assertEquals(1, loads(User.class));
+        assertEquals(1, loads(Video.class));
+    }
+
+    @Test
+    void returningAnotherUsersRentalIsDenied() {
+        Long rentalId = rentalService.getRentalsByUser(userId).get(0).getId();
+
+        assertThrows(AccessDeniedException.class, () -> rentalService.returnVideo(rentalId, userId + 1_000_000));
+        assertEquals(null, rentalService.getRentalById(rentalId).getReturnDate());
+    }
+
+    private long loads(Class<?> entity) {
+        return statistics.getEntityStatistics(entity.getName()).getLoadCount();
+    }
+}
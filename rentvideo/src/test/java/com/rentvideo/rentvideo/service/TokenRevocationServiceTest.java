@@ -0,0 +1,105 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.TestUsers;
+import com.rentvideo.rentvideo.dto.JwtResponse;
+import com.rentvideo.rentvideo.dto.LoginRequest;
+import com.rentvideo.rentvideo.exception.InvalidRefreshTokenException;
+import com.rentvideo.rentvideo.model.Role;
+import com.rentvideo.rentvideo.model.User;
+import com.rentvideo.rentvideo.repository.UserRepository;
+import com.rentvideo.rentvideo.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.User.UserBuilder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String username;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = TestUsers.save(userRepository, "revoke", passwordEncoder.encode("secret"));
+        username = user.getUsername();
+        userId = user.getId();
+    }
+
+    @Test
+    void logoutRevokesTheAccessTokenAndItsSession() {
+        JwtResponse session = authService.authenticateUser(login());
+        JwtResponse other = authService.authenticateUser(login());
+
+        authService.logout(session.getToken(), session.getRefreshToken());
+
+        assertTrue(isRevoked(session.getToken()));
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refreshToken(session.getRefreshToken()));
+        // Other sessions of the same user are untouched
+        assertFalse(isRevoked(other.getToken()));
+        authService.refreshToken(other.getRefreshToken());
+    }
+
+    @Test
+    void roleChangeRevokesEveryEarlierToken() {
+        String before = authService.authenticateUser(login()).getToken();
+        JwtResponse beforeRefresh = authService.authenticateUser(login());
+
+        userService.assignRoleToUser(userId, Role.RoleName.ROLE_ADMIN);
+
+        assertTrue(isRevoked(before));
+        assertTrue(isRevoked(beforeRefresh.getToken()));
+        // Tokens issued afterwards, by login or refresh, carry the new version and roles
+        assertFalse(isRevoked(authService.authenticateUser(login()).getToken()));
+        JwtResponse refreshed = authService.refreshToken(beforeRefresh.getRefreshToken());
+        assertFalse(isRevoked(refreshed.getToken()));
+        assertTrue(refreshed.getRoles().contains("ROLE_ADMIN"));
+    }
+
+    @Test
+    void revocationsSurviveAFilterRebuild() {
+        JwtResponse session = authService.authenticateUser(login());
+        String live = authService.authenticateUser(login()).getToken();
+        authService.logout(session.getToken(), null);
+
+        tokenRevocationService.reload();
+
+        assertTrue(isRevoked(session.getToken()));
+        assertFalse(isRevoked(live));
+    }
+
+    @Test
+    void tokensWithoutRevocationClaimsAreNotRevoked() {
+        UserBuilder builder = org.springframework.security.core.userdetails.User.withUsername(username);
+        String token = jwtUtil.generateToken(builder.password("").roles("USER").build());
+
+        assertFalse(isRevoked(token));
+    }
+
+    private boolean isRevoked(String token) {
+        return tokenRevocationService.isRevoked(jwtUtil.parseToken(token));
+    }
+
+    private LoginRequest login() {
+        return TestUsers.login(username, "secret");
+    }
+}
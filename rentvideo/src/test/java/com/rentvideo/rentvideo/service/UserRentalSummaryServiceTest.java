@@ -0,0 +1,91 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.TestUsers;
+import com.rentvideo.rentvideo.dto.UserRentalSummaryDTO;
+import com.rentvideo.rentvideo.model.Rental;
+import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.repository.UserRentalSummaryRepository;
+import com.rentvideo.rentvideo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class UserRentalSummaryServiceTest {
+
+    @Autowired
+    private UserRentalSummaryService userRentalSummaryService;
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private VideoService videoService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserRentalSummaryRepository summaryRepository;
+
+    private Long userId;
+    private Video cheap;
+    private Video pricey;
+
+    @BeforeEach
+    void setUp() {
+        userId = TestUsers.save(userRepository, "summary").getId();
+        cheap = videoService.createVideo(new Video(null, "Summary Cheap", "Director", "Drama", 2004, 3, 1.0));
+        pricey = videoService.createVideo(new Video(null, "Summary Pricey", "Director", "Drama", 2005, 3, 4.0));
+    }
+
+    @Test
+    void summaryIsMaintainedIncrementallyByRentAndReturn() {
+        Rental first = rentalService.rentVideo(userId, cheap.getId());
+        rentalService.rentVideo(userId, pricey.getId());
+        rentalService.returnVideo(first.getId(), userId);
+        rentalService.returnVideoByUserIdAndVideoId(userId, pricey.getId());
+        rentalService.rentVideo(userId, cheap.getId());
+
+        UserRentalSummaryDTO summary = userRentalSummaryService.getSummary(userId);
+
+        assertEquals(1, summary.getActiveCount());
+        assertEquals(3, summary.getLifetimeRentals());
+        assertEquals(5.0, summary.getLifetimeSpend(), 0.0001);
+        assertEquals(LocalDate.now(), summary.getLastRentalDate());
+        assertEquals(1, summary.getActiveRentals().size());
+        assertEquals("Summary Cheap", summary.getActiveRentals().get(0).getVideoTitle());
+    }
+
+    @Test
+    void missingSummaryIsBackfilledFromRentalHistory() {
+        Rental first = rentalService.rentVideo(userId, cheap.getId());
+        rentalService.returnVideo(first.getId(), userId);
+        rentalService.rentVideo(userId, pricey.getId());
+        summaryRepository.deleteById(userId); // As for a customer from before the summary table existed
+
+        UserRentalSummaryDTO summary = userRentalSummaryService.getSummary(userId);
+
+        assertEquals(1, summary.getActiveCount());
+        assertEquals(2, summary.getLifetimeRentals());
+        assertEquals(1.0, summary.getLifetimeSpend(), 0.0001);
+        assertTrue(summaryRepository.existsById(userId));
+
+        // Updates continue from the backfilled row
+        rentalService.returnVideoByUserIdAndVideoId(userId, pricey.getId());
+        assertEquals(0, userRentalSummaryService.getSummary(userId).getActiveCount());
+        assertEquals(5.0, userRentalSummaryService.getSummary(userId).getLifetimeSpend(), 0.0001);
+    }
+
+    @Test
+    void userWithoutRentalsHasAnEmptySummary() {
+        UserRentalSummaryDTO summary = userRentalSummaryService.getSummary(userId);
+
+        assertEquals(0, summary.getActiveCount());
+        assertEquals(0, summary.getLifetimeRentals());
+        assertEquals(null, summary.getLastRentalDate());
+        assertTrue(summary.getActiveRentals().isEmpty());
+    }
+}
@@ -0,0 +1,141 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.model.Video;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class VideoFacetIndexTest {
+
+    @Autowired
+    private VideoFacetIndex videoFacetIndex;
+    @Autowired
+    private VideoService videoService;
+
+    // Every video gets this director, so filtering on it isolates this test's videos from the shared catalog
+    private String director;
+    private String noir;
+    private String western;
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        String tag = "facet" + System.nanoTime();
+        director = "Director " + tag;
+        noir = "Noir " + tag;
+        western = "Western " + tag;
+    }
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(videoService::deleteVideo);
+    }
+
+    @Test
+    void eachFacetIsCountedWithoutItsOwnConstraint() {
+        create(noir, 1951, 1, 1.0);
+        Long match = create(noir, 1962, 1, 1.0);
+        create(western, 1965, 1, 1.0);
+        create(western, 1955, 1, 1.0);
+
+        VideoFacetIndex.Result result = browse(Set.of(noir), 1960, 1969, null, null, false);
+
+        assertEquals(List.of(match), result.videoIds());
+        assertEquals(1, result.total());
+        // Genres are counted within the year range only, decades within the genre only
+        assertEquals(Map.of(noir, 1, western, 1), result.genreCounts());
+        assertEquals(Map.of(1950, 1, 1960, 1), result.decadeCounts());
+
+        // Genre names match case-insensitively and several genres are OR-ed
+        VideoFacetIndex.Result both = browse(Set.of(noir.toUpperCase(), western), null, null, null, null, false);
+        assertEquals(4, both.total());
+        assertEquals(List.of(1950, 1960), List.copyOf(both.decadeCounts().keySet()));
+    }
+
+    @Test
+    void priceStockAndDirectorFilters() {
+        Long cheap = create(noir, 2001, 1, 1.5);
+        Long mid = create(noir, 2002, 0, 3.0);
+        Long dear = create(noir, 2003, 2, 6.0);
+
+        assertEquals(List.of(cheap, mid), browse(null, null, null, null, 3.0, false).videoIds());
+        assertEquals(List.of(mid, dear), browse(null, null, null, 3.0, null, false).videoIds());
+        assertEquals(List.of(mid), browse(null, null, null, 2.0, 4.0, false).videoIds());
+        assertEquals(List.of(cheap, dear), browse(null, null, null, null, null, true).videoIds());
+        assertEquals(List.of(dear), browse(null, null, null, 2.0, null, true).videoIds());
+
+        // The director filter is a case-insensitive substring match
+        String fragment = director.substring("Director ".length()).toUpperCase();
+        VideoFacetIndex.Filter byFragment = new VideoFacetIndex.Filter(null, null, null, fragment, null, null, false);
+        assertEquals(List.of(cheap, mid, dear), videoFacetIndex.browse(byFragment, 0, 10).videoIds());
+    }
+
+    @Test
+    void pagesAreCutByKeysetInIdOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int year = 1990; year < 1995; year++) {
+            ids.add(create(noir, year, 1, 1.0));
+        }
+        VideoFacetIndex.Filter filter = new VideoFacetIndex.Filter(null, null, null, director, null, null, false);
+
+        VideoFacetIndex.Result first = videoFacetIndex.browse(filter, 0, 2);
+        VideoFacetIndex.Result second = videoFacetIndex.browse(filter, first.videoIds().get(1), 2);
+        VideoFacetIndex.Result last = videoFacetIndex.browse(filter, second.videoIds().get(1), 2);
+
+        assertEquals(ids.subList(0, 2), first.videoIds());
+        assertEquals(ids.subList(2, 4), second.videoIds());
+        assertEquals(ids.subList(4, 5), last.videoIds());
+        assertTrue(videoFacetIndex.browse(filter, ids.get(4), 2).videoIds().isEmpty());
+        // Totals and facets always describe the whole filter, not the page
+        assertEquals(5, second.total());
+        assertEquals(Map.of(noir, 5), second.genreCounts());
+    }
+
+    @Test
+    void indexFollowsCreateUpdateAndDelete() {
+        Long id = create(noir, 1975, 1, 1.0);
+        assertEquals(List.of(id), browse(Set.of(noir), null, null, null, null, false).videoIds());
+
+        Video changed = videoService.getVideoById(id);
+        changed.setGenre(western);
+        changed.setReleaseYear(1984);
+        changed.setRentalPrice(9.0);
+        videoService.updateVideo(id, changed);
+
+        assertTrue(browse(Set.of(noir), null, null, null, null, false).videoIds().isEmpty());
+        VideoFacetIndex.Result updated = browse(Set.of(western), 1980, 1989, 8.0, null, false);
+        assertEquals(List.of(id), updated.videoIds());
+        // The emptied genre and decade disappear from the counts
+        assertEquals(Map.of(western, 1), updated.genreCounts());
+        assertEquals(Map.of(1980, 1), updated.decadeCounts());
+
+        videoService.deleteVideo(id);
+        created.remove(id);
+        VideoFacetIndex.Result deleted = browse(null, null, null, null, null, false);
+        assertEquals(0, deleted.total());
+        assertTrue(deleted.genreCounts().isEmpty());
+    }
+
+    private VideoFacetIndex.Result browse(Set<String> genres, Integer minYear, Integer maxYear,
+                                          Double minPrice, Double maxPrice, boolean inStock) {
+        return videoFacetIndex.browse(
+                new VideoFacetIndex.Filter(genres, minYear, maxYear, director, minPrice, maxPrice, inStock), 0, 10);
+    }
+
+    private Long create(String genre, int releaseYear, int copies, double price) {
+        Long id = videoService.createVideo(new Video(null, "Facet Film", director, genre, releaseYear, copies, price)).getId();
+        created.add(id);
+        return id;
+    }
+}
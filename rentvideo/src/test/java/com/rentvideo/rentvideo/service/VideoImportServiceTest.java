@@ -0,0 +1,95 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.dto.VideoImportReport;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class VideoImportServiceTest {
+
+    private static final int ROWS = 1000;
+
+    @Autowired
+    private VideoImportService videoImportService;
+    @Autowired
+    private VideoService videoService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String director;
+
+    @BeforeEach
+    void setUp() {
+        director = "Importer " + System.nanoTime();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        // Through the service so the in-memory catalog views drop them too
+        jdbcTemplate.queryForList("SELECT id FROM videos WHERE director = ?", Long.class, director)
+                .forEach(videoService::deleteVideo);
+    }
+
+    @Test
+    void csvRowsAreInsertedInJdbcBatchesAndBadRowsReported() throws Exception {
+        StringBuilder csv = new StringBuilder("rentalPrice,title,director,genre,releaseYear,availableCopies\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("1.99,\"Imported, Part ").append(i).append("\",").append(director).append(",Drama,1999,2\n");
+        }
+        csv.append("1.99,,").append(director).append(",Drama,1999,2\n"); // Missing title
+        csv.append("abc,Bad Price,").append(director).append(",Drama,1999,2\n");
+
+        VideoImportReport report = videoImportService.importVideos(stream(csv.toString()), VideoImportService.Format.CSV);
+
+        assertEquals(ROWS + 2, report.getRowsRead());
+        assertEquals(ROWS, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(ROWS + 2, report.getErrors().get(0).getLine());
+        assertEquals(ROWS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM videos WHERE director = ?", Integer.class, director));
+        assertEquals("Imported, Part 0", videoService.searchVideos("imported part 0").get(0).getTitle());
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        // Batched: a few dozen INSERT and sequence statements instead of one per row
+        assertTrue(statistics.getPrepareStatementCount() < ROWS / 10, "statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void ndjsonRowsAreValidatedIndividually() throws Exception {
+        String ndjson = "{\"title\":\"Ok\",\"director\":\"" + director + "\",\"genre\":\"Drama\",\"releaseYear\":2001,\"availableCopies\":1,\"rentalPrice\":2.5}\n"
+                + "\n"
+                + "{\"title\":\"Too Old\",\"director\":\"" + director + "\",\"genre\":\"Drama\",\"releaseYear\":1700,\"availableCopies\":1,\"rentalPrice\":2.5}\n"
+                + "{not json\n";
+
+        VideoImportReport report = videoImportService.importVideos(stream(ndjson), VideoImportService.Format.NDJSON);
+
+        assertEquals(3, report.getRowsRead());
+        assertEquals(1, report.getImported());
+        assertEquals(2, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(0).getMessage().startsWith("releaseYear:"));
+        assertEquals(4, report.getErrors().get(1).getLine());
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,87 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.model.Video;
+import com.rentvideo.rentvideo.repository.VideoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Counters of a standalone VideoInventory against rows changed behind its back, as by another instance
+@SpringBootTest
+class VideoInventoryTest {
+
+    private static final long UNKNOWN_VIDEO_ID = 987_654_321L;
+
+    @Autowired
+    private VideoRepository videoRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long videoId;
+
+    @BeforeEach
+    void setUp() {
+        videoId = videoRepository.save(new Video(null, "Inventory Drift", "Director", "Drama", 2012, 1, 1.0)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        videoRepository.deleteById(videoId);
+        jdbcTemplate.update("DELETE FROM videos WHERE id = ?", UNKNOWN_VIDEO_ID);
+    }
+
+    @Test
+    void soldOutCounterPicksUpCopiesReturnedElsewhere() {
+        VideoInventory inventory = new VideoInventory(videoRepository, 0);
+        assertTrue(inventory.tryReserve(videoId));
+        // This instance's counter is now 0, but the row still has its copy (e.g. returned through another node)
+
+        assertTrue(inventory.tryReserve(videoId));
+
+        setCopies(0);
+        assertFalse(inventory.tryReserve(videoId));
+    }
+
+    @Test
+    void soldOutCounterIsTrustedWithinTheRecheckInterval() {
+        VideoInventory inventory = new VideoInventory(videoRepository, 60_000);
+        assertTrue(inventory.tryReserve(videoId));
+
+        assertFalse(inventory.tryReserve(videoId));
+    }
+
+    @Test
+    void unknownVideosAreNotCachedAsSoldOut() {
+        VideoInventory inventory = new VideoInventory(videoRepository, 60_000);
+        assertEquals(0, inventory.getAvailableCopies(UNKNOWN_VIDEO_ID));
+        assertFalse(inventory.tryReserve(UNKNOWN_VIDEO_ID));
+
+        jdbcTemplate.update("INSERT INTO videos (id, title, director, genre, release_year, available_copies, rental_price) "
+                + "VALUES (?, 'Late Arrival', 'Director', 'Drama', 2013, 2, 1.0)", UNKNOWN_VIDEO_ID);
+
+        assertEquals(2, inventory.getAvailableCopies(UNKNOWN_VIDEO_ID));
+        assertTrue(inventory.tryReserve(UNKNOWN_VIDEO_ID));
+    }
+
+    @Test
+    void reconcileResyncsEveryCounter() {
+        VideoInventory inventory = new VideoInventory(videoRepository, 60_000);
+        assertTrue(inventory.tryReserve(videoId));
+        setCopies(3);
+
+        inventory.reconcile();
+
+        assertEquals(3, inventory.getAvailableCopies(videoId));
+    }
+
+    private void setCopies(int copies) {
+        jdbcTemplate.update("UPDATE videos SET available_copies = ? WHERE id = ?", copies, videoId);
+    }
+}
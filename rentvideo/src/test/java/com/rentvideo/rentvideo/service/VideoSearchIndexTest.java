@@ -0,0 +1,102 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.model.Video;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class VideoSearchIndexTest {
+
+    @Autowired
+    private VideoSearchIndex videoSearchIndex;
+    @Autowired
+    private VideoService videoService;
+
+    // A word no other test data contains, so only this test's videos match it
+    private String tag;
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tag = "srch" + System.nanoTime();
+    }
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(videoService::deleteVideo);
+    }
+
+    @Test
+    void titleMatchesRankAboveDirectorAndGenreMatches() {
+        Long inGenre = create("Plain Film", "Some Director", "Noir " + tag);
+        Long inDirector = create("Another Film", "Director " + tag, "Drama");
+        Long inTitle = create("The " + tag + " Story", "Third Director", "Drama");
+
+        assertEquals(List.of(inTitle, inDirector, inGenre), videoSearchIndex.search(tag));
+    }
+
+    @Test
+    void everyQueryWordMustMatchAsWordOrPrefix() {
+        Long exact = create(tag + " Rising", "Director", "Drama");
+        Long longer = create(tag + "ville Rising", "Director", "Drama");
+        create(tag + " Falling", "Director", "Drama");
+
+        // Whole-word matches first, then words the query is a prefix of
+        assertEquals(List.of(exact, longer), videoSearchIndex.search(tag + " ris"));
+        assertEquals(List.of(longer), videoSearchIndex.search(tag + "vil"));
+        assertEquals(3, videoSearchIndex.search(tag.substring(0, tag.length() - 2)).size());
+    }
+
+    @Test
+    void accentsAndCaseAreFolded() {
+        Long amelie = create("Amélie " + tag, "Jean-Pierre Jeunet", "Comedy");
+
+        assertEquals(List.of(amelie), videoSearchIndex.search("AMELIE " + tag));
+        assertEquals(List.of(amelie), videoSearchIndex.search("jeunet " + tag.toUpperCase()));
+        assertEquals(List.of(amelie), videoSearchIndex.search("amél " + tag));
+    }
+
+    @Test
+    void foldingIgnoresTheDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            // Turkish lower-cases "I" to a dotless "ı", which would never match a query typed as "i"
+            assertEquals("istanbul", VideoSearchIndex.fold("ISTANBUL"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void indexFollowsCreateUpdateAndDelete() {
+        Long id = create("Before " + tag, "Director", "Drama");
+        assertEquals(List.of(id), videoSearchIndex.search("before " + tag));
+
+        Video renamed = videoService.getVideoById(id);
+        renamed.setTitle("After " + tag);
+        videoService.updateVideo(id, renamed);
+        assertTrue(videoSearchIndex.search("before " + tag).isEmpty());
+        assertEquals(List.of(id), videoSearchIndex.search("after " + tag));
+
+        videoService.deleteVideo(id);
+        created.remove(id);
+        assertTrue(videoSearchIndex.search(tag).isEmpty());
+    }
+
+    private Long create(String title, String director, String genre) {
+        Long id = videoService.createVideo(new Video(null, title, director, genre, 2001, 1, 1.0)).getId();
+        created.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,142 @@
+package com.rentvideo.rentvideo.service;
+
+import com.rentvideo.rentvideo.dto.VideoSuggestionDTO;
+import com.rentvideo.rentvideo.model.Video;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class VideoSuggesterTest {
+
+    // Snapshots are rebuilt in the background, so changes become visible shortly after a write
+    private static final long REBUILD_TIMEOUT_MS = 5_000;
+
+    @Autowired
+    private VideoSuggester videoSuggester;
+    @Autowired
+    private VideoService videoService;
+    @Autowired
+    private VideoPopularity videoPopularity;
+
+    // A word no other test data contains, so only this test's videos match it
+    private String tag;
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        tag = "sgst" + System.nanoTime();
+    }
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(videoService::deleteVideo);
+    }
+
+    @Test
+    void mostRentedTitlesComeFirst() {
+        Long rare = create(tag + " Rare", "Director A");
+        Long popular = create(tag + " Popular", "Director B");
+        Long middling = create(tag + " Middling", "Director C");
+        rent(popular, 3);
+        rent(middling, 2);
+        rent(rare, 1);
+        videoSuggester.refresh();
+
+        List<Long> expected = List.of(popular, middling, rare);
+        assertEquals(expected, await(() -> videoIds(videoSuggester.suggest(tag, 10)), expected));
+        // Case and accents are folded as in search
+        assertEquals(List.of(popular), videoIds(videoSuggester.suggest(tag.toUpperCase() + " POPULÁR", 10)));
+    }
+
+    @Test
+    void directorsAggregateTheRentalsOfAllTheirVideos() {
+        Long first = create("First " + tag, "Director " + tag);
+        Long second = create("Second " + tag, "Director " + tag);
+        rent(first, 2);
+        rent(second, 3);
+        videoSuggester.refresh();
+
+        VideoSuggestionDTO director = await(() -> videoSuggester.suggest("director " + tag, 10).stream()
+                .filter(suggestion -> suggestion.getField().equals("director")).findFirst().orElse(null),
+                new VideoSuggestionDTO("Director " + tag, "director", null, 5));
+        assertEquals(new VideoSuggestionDTO("Director " + tag, "director", null, 5), director);
+    }
+
+    @Test
+    void limitCapsLongAndShortPrefixes() {
+        for (int i = 0; i < 5; i++) {
+            create(tag + " Part " + i, "Director");
+        }
+        await(() -> videoSuggester.suggest(tag, 10).size(), 5);
+
+        assertEquals(3, videoSuggester.suggest(tag, 3).size());
+        // One- to three-letter prefixes come from the precomputed lists, which hold the best across the catalog
+        for (String prefix : List.of("s", "sg", "sgs")) {
+            List<VideoSuggestionDTO> suggestions = videoSuggester.suggest(prefix, 3);
+            assertEquals(3, suggestions.size());
+            for (int i = 1; i < suggestions.size(); i++) {
+                assertTrue(suggestions.get(i - 1).getPopularity() >= suggestions.get(i).getPopularity());
+            }
+        }
+        assertTrue(videoSuggester.suggest("s", VideoSuggester.MAX_LIMIT).size() <= VideoSuggester.MAX_LIMIT);
+        assertTrue(videoSuggester.suggest(" - ", 10).isEmpty());
+    }
+
+    @Test
+    void suggestionsFollowCreateUpdateAndDelete() {
+        Long id = create("Before " + tag, "Director");
+        assertEquals(List.of(id), await(() -> videoIds(videoSuggester.suggest("before " + tag, 10)), List.of(id)));
+
+        Video renamed = videoService.getVideoById(id);
+        renamed.setTitle("After " + tag);
+        videoService.updateVideo(id, renamed);
+        assertEquals(List.of(), await(() -> videoIds(videoSuggester.suggest("before " + tag, 10)), List.of()));
+        assertEquals(List.of(id), videoIds(videoSuggester.suggest("after " + tag, 10)));
+
+        videoService.deleteVideo(id);
+        created.remove(id);
+        assertEquals(List.of(), await(() -> videoIds(videoSuggester.suggest("after " + tag, 10)), List.of()));
+    }
+
+    private Long create(String title, String director) {
+        Long id = videoService.createVideo(new Video(null, title, director, "Drama", 2000, 1, 1.0)).getId();
+        created.add(id);
+        return id;
+    }
+
+    private void rent(Long videoId, int times) {
+        for (int i = 0; i < times; i++) {
+            videoPopularity.recordRental(videoId);
+        }
+    }
+
+    private static List<Long> videoIds(List<VideoSuggestionDTO> suggestions) {
+        return suggestions.stream().filter(s -> s.getField().equals("title")).map(VideoSuggestionDTO::getVideoId).toList();
+    }
+
+    // Polls until the background rebuild has produced the expected value, returning the last one seen
+    private static <T> T await(Supplier<T> actual, T expected) {
+        long deadline = System.currentTimeMillis() + REBUILD_TIMEOUT_MS;
+        T value = actual.get();
+        while (!expected.equals(value) && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            value = actual.get();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,28 @@
+package com.rentvideo.rentvideo.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void addedKeysAreAlwaysFoundAndOthersRarely() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("u:" + i + ":0");
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("u:" + i + ":0"));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("u:" + i + ":1")) {
+                falsePositives++;
+            }
+        }
+        // Sized for 1%; allow some slack for the hash
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}